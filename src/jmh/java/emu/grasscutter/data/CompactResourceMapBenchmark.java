@@ -0,0 +1,118 @@
+package emu.grasscutter.data;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.google.gson.*;
+import emu.grasscutter.data.excels.ItemData;
+import emu.grasscutter.utils.JsonUtils;
+import it.unimi.dsi.fastutil.ints.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the default {@code Int2ObjectOpenHashMap} resource tables with {@link
+ * CompactResourceMap}, using generated {@link ItemData} decoded the same way as excel files.
+ *
+ * <p>{@code footprint} reports the heap retained by a table and its items as the {@code
+ * retainedBytes} counter. {@code lookup} measures random ID lookups.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2G")
+public class CompactResourceMapBenchmark {
+    private static final String[] ITEM_TYPES = {"ITEM_MATERIAL", "ITEM_WEAPON", "ITEM_RELIQUARY", "ITEM_FURNITURE"};
+    private static final String[] DESTROY_RULES = {"DESTROY_NONE", "DESTROY_RETURN_MATERIAL"};
+    private static final String[] FOOD_QUALITIES = {"FOOD_QUALITY_NONE", "FOOD_QUALITY_ORDINARY", "FOOD_QUALITY_DELICIOUS"};
+
+    @Param({"hash", "compact"})
+    public String layout;
+
+    @Param({"40000"})
+    public int entries;
+
+    private String excel;
+    private Int2ObjectMap<ItemData> table;
+    private int[] probes;
+
+    @Setup
+    public void setup() {
+        // Resources log through the console appender, which would start the server.
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+
+        var random = new Random(this.entries);
+        var rows = new JsonArray(this.entries);
+        for (var i = 0; i < this.entries; i++) {
+            var row = new JsonObject();
+            row.addProperty("id", 100000 + i * 3);
+            row.addProperty("itemType", ITEM_TYPES[random.nextInt(ITEM_TYPES.length)]);
+            row.addProperty("icon", "UI_ItemIcon_" + random.nextInt(this.entries / 4));
+            row.addProperty("effectName", "");
+            row.addProperty("destroyRule", DESTROY_RULES[random.nextInt(DESTROY_RULES.length)]);
+            row.addProperty("foodQuality", FOOD_QUALITIES[random.nextInt(FOOD_QUALITIES.length)]);
+            row.addProperty("rankLevel", 1 + random.nextInt(5));
+            row.addProperty("stackLimit", 9999);
+            row.addProperty("nameTextMapHash", random.nextLong());
+            rows.add(row);
+        }
+        this.excel = rows.toString();
+
+        this.table = this.build();
+        this.probes = new int[1024];
+        for (var i = 0; i < this.probes.length; i++) {
+            this.probes[i] = 100000 + random.nextInt(this.entries) * 3;
+        }
+    }
+
+    private Int2ObjectMap<ItemData> build() {
+        Int2ObjectMap<ItemData> table =
+                this.layout.equals("compact") ? new CompactResourceMap<>() : new Int2ObjectOpenHashMap<>();
+        try {
+            for (var item : JsonUtils.loadToList(new StringReader(this.excel), ItemData.class)) {
+                table.put(item.getId(), item);
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+
+        if (table instanceof CompactResourceMap<ItemData> compact) {
+            compact.compact(new HashMap<>());
+        }
+        return table;
+    }
+
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        for (var id : this.probes) {
+            blackhole.consume(this.table.get(id));
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public Object footprint(Footprint footprint) {
+        var memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        var before = memory.getHeapMemoryUsage().getUsed();
+
+        var table = this.build();
+
+        memory.gc();
+        footprint.retainedBytes = memory.getHeapMemoryUsage().getUsed() - before;
+        return table;
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+        public long retainedBytes;
+    }
+}
@@ -0,0 +1,190 @@
+package emu.grasscutter.database;
+
+import ch.qos.logback.classic.LoggerContext;
+import com.mongodb.client.*;
+import dev.morphia.*;
+import dev.morphia.mapping.MapperOptions;
+import emu.grasscutter.game.achievement.Achievements;
+import emu.grasscutter.game.avatar.Avatar;
+import emu.grasscutter.game.battlepass.BattlePassManager;
+import emu.grasscutter.game.friends.Friendship;
+import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.mail.Mail;
+import emu.grasscutter.game.quest.GameMainQuest;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares reading a player's login documents with one aggregation against one query per
+ * collection. Needs a MongoDB server (4.4 or newer), set with {@code -Dbenchmark.mongo=<uri>}.
+ * The fixture is written to the {@code grasscutter-benchmark} database, which is dropped afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoginSnapshotBenchmark {
+    private static final String DATABASE = "grasscutter-benchmark";
+
+    @Param({"2000", "5000"})
+    public int itemCount;
+
+    @Param({"10"})
+    public int accounts;
+
+    private MongoClient client;
+    private Datastore datastore;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        // The server's log appender starts the whole server when first used.
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).reset();
+
+        this.client =
+                MongoClients.create(System.getProperty("benchmark.mongo", "mongodb://localhost:27017"));
+        this.datastore =
+                Morphia.createDatastore(
+                        this.client,
+                        DATABASE,
+                        MapperOptions.builder().storeEmpties(true).storeNulls(false).build());
+        this.datastore
+                .getMapper()
+                .map(
+                        Avatar.class,
+                        GameItem.class,
+                        Friendship.class,
+                        Mail.class,
+                        GameMainQuest.class,
+                        BattlePassManager.class,
+                        Achievements.class);
+
+        var database = this.client.getDatabase(DATABASE);
+        database.drop();
+        for (var uid = 1; uid <= this.accounts; uid++) {
+            this.seed(database, uid);
+        }
+        for (var collection : List.of("avatars", "items", "friendships", "mail", "quests")) {
+            var field = collection.equals("mail") || collection.equals("quests") ? "ownerUid" : "ownerId";
+            database.getCollection(collection).createIndex(new Document(field, 1));
+        }
+        database.getCollection("battlepass").createIndex(new Document("ownerUid", 1));
+        database.getCollection("achievements").createIndex(new Document("uid", 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.client.getDatabase(DATABASE).drop();
+        this.client.close();
+    }
+
+    /** Writes a player with a heavy inventory. */
+    private void seed(MongoDatabase database, int uid) {
+        var random = new Random(uid);
+
+        var avatars = new ArrayList<Document>();
+        for (var i = 0; i < 80; i++) {
+            avatars.add(
+                    new Document("_id", new ObjectId())
+                            .append("ownerId", uid)
+                            .append("avatarId", 10000002 + i)
+                            .append("level", 90)
+                            .append("exp", random.nextInt(100000))
+                            .append("promoteLevel", 6)
+                            .append("skillLevelMap", new Document("10024", 10).append("10018", 9))
+                            .append("talentIdList", List.of(21, 22, 23, 24, 25, 26)));
+        }
+        database.getCollection("avatars").insertMany(avatars);
+
+        var items = new ArrayList<Document>();
+        for (var i = 0; i < this.itemCount; i++) {
+            items.add(
+                    new Document("_id", new ObjectId())
+                            .append("ownerId", uid)
+                            .append("itemId", 11101 + random.nextInt(10000))
+                            .append("count", 1 + random.nextInt(9999))
+                            .append("level", random.nextInt(21))
+                            .append("exp", random.nextInt(100000))
+                            .append("totalExp", random.nextInt(1000000))
+                            .append("promoteLevel", random.nextInt(7))
+                            .append("locked", random.nextBoolean())
+                            .append("affixes", List.of(random.nextInt(200000)))
+                            .append("refinement", random.nextInt(5))
+                            .append("mainPropId", 10000 + random.nextInt(5000))
+                            .append(
+                                    "appendPropIdList",
+                                    List.of(
+                                            random.nextInt(1000000),
+                                            random.nextInt(1000000),
+                                            random.nextInt(1000000),
+                                            random.nextInt(1000000)))
+                            .append("equipCharacter", 0));
+        }
+        database.getCollection("items").insertMany(items);
+
+        var friendships = new ArrayList<Document>();
+        for (var i = 0; i < 40; i++) {
+            friendships.add(
+                    new Document("_id", new ObjectId())
+                            .append("ownerId", uid)
+                            .append("friendId", 100000 + i)
+                            .append("isFriend", true)
+                            .append("askerId", uid));
+        }
+        database.getCollection("friendships").insertMany(friendships);
+
+        var mail = new ArrayList<Document>();
+        for (var i = 0; i < 100; i++) {
+            mail.add(
+                    new Document("_id", new ObjectId())
+                            .append("ownerUid", uid)
+                            .append("sendTime", 1_700_000_000L + i)
+                            .append("expireTime", 1_800_000_000L)
+                            .append("isRead", random.nextBoolean()));
+        }
+        database.getCollection("mail").insertMany(mail);
+
+        var quests = new ArrayList<Document>();
+        for (var i = 0; i < 300; i++) {
+            quests.add(
+                    new Document("_id", new ObjectId())
+                            .append("ownerUid", uid)
+                            .append("parentQuestId", 300 + i)
+                            .append("isFinished", random.nextBoolean())
+                            .append("questVars", List.of(0, 0, 0, 0, 0)));
+        }
+        database.getCollection("quests").insertMany(quests);
+
+        database
+                .getCollection("battlepass")
+                .insertOne(new Document("_id", new ObjectId()).append("ownerUid", uid).append("point", 0));
+        database
+                .getCollection("achievements")
+                .insertOne(
+                        new Document("_id", new ObjectId())
+                                .append("_t", "Achievements")
+                                .append("uid", uid)
+                                .append("finishedAchievementNum", 0));
+    }
+
+    private int nextUid() {
+        this.next = this.next % this.accounts + 1;
+        return this.next;
+    }
+
+    @Benchmark
+    public LoginSnapshot separateQueries() {
+        return LoginSnapshot.fetchSeparately(this.datastore, this.nextUid());
+    }
+
+    @Benchmark
+    public LoginSnapshot singleAggregation() {
+        return LoginSnapshot.fetchUnion(this.datastore, this.nextUid());
+    }
+}
@@ -0,0 +1,81 @@
+package emu.grasscutter.net.packet;
+
+import com.google.protobuf.ByteString;
+import emu.grasscutter.net.proto.UnionCmdNotifyOuterClass.UnionCmdNotify;
+import emu.grasscutter.net.proto.UnionCmdOuterClass.UnionCmd;
+import io.netty.buffer.*;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares {@link BasePacket#encode(ByteBufAllocator)} with the previous {@code
+ * ByteArrayOutputStream}-based encoder for small, medium and {@code PlayerStoreNotify}-sized bodies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BasePacketBenchmark {
+    @Param({"50", "2048", "204800"})
+    public int payloadSize;
+
+    private UnionCmdNotify proto;
+    private byte[] header;
+
+    @Setup
+    public void setup() {
+        var body = new byte[this.payloadSize];
+        new Random(this.payloadSize).nextBytes(body);
+
+        this.proto =
+                UnionCmdNotify.newBuilder()
+                        .addCmdList(UnionCmd.newBuilder().setMessageId(1).setBody(ByteString.copyFrom(body)))
+                        .build();
+        this.header = new BasePacket(0, 1).getHeader();
+    }
+
+    @Benchmark
+    public ByteBuf legacyBuild() {
+        var data = this.proto.toByteArray();
+
+        var baos = new ByteArrayOutputStream(2 + 2 + 2 + 4 + this.header.length + data.length + 2);
+        writeUint16(baos, 0x4567);
+        writeUint16(baos, 1);
+        writeUint16(baos, this.header.length);
+        writeUint32(baos, data.length);
+        baos.writeBytes(this.header);
+        baos.writeBytes(data);
+        writeUint16(baos, 0x89ab);
+
+        var buf = Unpooled.wrappedBuffer(baos.toByteArray());
+        buf.release();
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuf pooledEncode() {
+        var packet = new BasePacket(1);
+        packet.setHeader(this.header);
+        packet.setData(this.proto);
+
+        var buf = packet.encode(PooledByteBufAllocator.DEFAULT);
+        buf.release();
+        return buf;
+    }
+
+    private static void writeUint16(ByteArrayOutputStream baos, int i) {
+        baos.write((byte) ((i >>> 8) & 0xFF));
+        baos.write((byte) (i & 0xFF));
+    }
+
+    private static void writeUint32(ByteArrayOutputStream baos, int i) {
+        baos.write((byte) ((i >>> 24) & 0xFF));
+        baos.write((byte) ((i >>> 16) & 0xFF));
+        baos.write((byte) ((i >>> 8) & 0xFF));
+        baos.write((byte) (i & 0xFF));
+    }
+}
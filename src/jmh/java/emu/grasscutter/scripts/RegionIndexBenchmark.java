@@ -0,0 +1,170 @@
+package emu.grasscutter.scripts;
+
+import emu.grasscutter.game.entity.GameEntity;
+import emu.grasscutter.game.world.Position;
+import emu.grasscutter.net.proto.SceneEntityInfoOuterClass.SceneEntityInfo;
+import emu.grasscutter.scripts.constants.ScriptRegionShape;
+import emu.grasscutter.scripts.data.SceneRegion;
+import it.unimi.dsi.fastutil.ints.Int2FloatMap;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares {@link RegionIndex} with the previous {@code checkRegions} loop, which tested every
+ * entity against every region. 500 regions and 2000 entities are spread over a 2 km square, and
+ * {@code movingPercent} of the entities move between checks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegionIndexBenchmark {
+    private static final float WORLD_SIZE = 2000f;
+
+    @Param({"500"})
+    public int regionCount;
+
+    @Param({"2000"})
+    public int entityCount;
+
+    @Param({"5", "100"})
+    public int movingPercent;
+
+    private final Random random = new Random(42);
+    private List<SceneRegion> regions;
+    private List<Entity> entities;
+    private RegionIndex index;
+    private Map<Integer, Set<Integer>> legacyMembers;
+
+    @Setup
+    public void setup() {
+        this.regions = new ArrayList<>(this.regionCount);
+        for (var i = 0; i < this.regionCount; i++) {
+            var region = new SceneRegion();
+            region.config_id = i;
+            region.pos = this.randomPosition();
+            if (i % 2 == 0) {
+                region.shape = ScriptRegionShape.SPHERE;
+                region.radius = 5 + this.random.nextInt(30);
+            } else {
+                region.shape = ScriptRegionShape.CUBIC;
+                region.size = new Position(10 + this.random.nextInt(50), 20, 10 + this.random.nextInt(50));
+            }
+            this.regions.add(region);
+        }
+
+        this.entities = new ArrayList<>(this.entityCount);
+        for (var i = 0; i < this.entityCount; i++) {
+            this.entities.add(new Entity((1 << 24) | i, this.randomPosition()));
+        }
+
+        this.index = new RegionIndex();
+        for (var i = 0; i < this.regions.size(); i++) {
+            this.index.add(i, this.regions.get(i));
+        }
+        this.legacyMembers = new HashMap<>();
+        for (var i = 0; i < this.regions.size(); i++) {
+            this.legacyMembers.put(i, ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void moveEntities() {
+        var moving = this.entityCount * this.movingPercent / 100;
+        for (var i = 0; i < moving; i++) {
+            var position = this.entities.get(this.random.nextInt(this.entityCount)).getPosition();
+            position.set(
+                    position.getX() + this.random.nextFloat() * 4 - 2,
+                    position.getY(),
+                    position.getZ() + this.random.nextFloat() * 4 - 2);
+        }
+    }
+
+    @Benchmark
+    public void index(Blackhole blackhole) {
+        this.index.update(
+                this.entities,
+                new RegionIndex.Listener() {
+                    @Override
+                    public void onEnter(int regionId, int entityId) {
+                        blackhole.consume(entityId);
+                    }
+
+                    @Override
+                    public void onLeave(int regionId, int entityId) {
+                        blackhole.consume(entityId);
+                    }
+                });
+    }
+
+    /** The previous implementation of {@code SceneScriptManager.checkRegions}. */
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (var i = 0; i < this.regions.size(); i++) {
+            var region = this.regions.get(i);
+            var members = this.legacyMembers.get(i);
+
+            var entities = this.entities.stream().filter(e -> region.contains(e.getPosition())).toList();
+            var entitiesIds = entities.stream().map(GameEntity::getId).toList();
+            var enterEntities = entitiesIds.stream().filter(e -> !members.contains(e)).toList();
+            var leaveEntities = members.stream().filter(e -> !entitiesIds.contains(e)).toList();
+
+            entities.forEach(e -> members.add(e.getId()));
+            enterEntities.forEach(blackhole::consume);
+            for (var entityId : members) {
+                var entity = this.entities.get(entityId & 0xFFFFFF);
+                if (!region.contains(entity.getPosition())) members.remove(entityId);
+            }
+            leaveEntities.forEach(blackhole::consume);
+        }
+    }
+
+    private Position randomPosition() {
+        return new Position(
+                this.random.nextFloat() * WORLD_SIZE, 10, this.random.nextFloat() * WORLD_SIZE);
+    }
+
+    /** A positioned entity without a scene. */
+    private static final class Entity extends GameEntity {
+        private final Position position;
+
+        Entity(int id, Position position) {
+            super(null);
+            this.id = id;
+            this.position = position;
+        }
+
+        @Override
+        public void initAbilities() {}
+
+        @Override
+        public int getEntityTypeId() {
+            return 0;
+        }
+
+        @Override
+        public Int2FloatMap getFightProperties() {
+            return null;
+        }
+
+        @Override
+        public Position getPosition() {
+            return this.position;
+        }
+
+        @Override
+        public Position getRotation() {
+            return null;
+        }
+
+        @Override
+        public SceneEntityInfo toProto() {
+            return null;
+        }
+    }
+}
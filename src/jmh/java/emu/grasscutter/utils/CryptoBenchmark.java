@@ -0,0 +1,43 @@
+package emu.grasscutter.utils;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+/** Compares {@link Crypto#xor(byte[], byte[])} with the previous byte-by-byte loop. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+    @Param({"64", "4096", "262144"})
+    public int packetSize;
+
+    private byte[] packet;
+    private byte[] key;
+
+    @Setup
+    public void setup() {
+        var random = new Random(this.packetSize);
+        this.packet = new byte[this.packetSize];
+        this.key = new byte[4096];
+        random.nextBytes(this.packet);
+        random.nextBytes(this.key);
+    }
+
+    @Benchmark
+    public byte[] legacyXor() {
+        for (int i = 0; i < this.packet.length; i++) {
+            this.packet[i] ^= this.key[i % this.key.length];
+        }
+        return this.packet;
+    }
+
+    @Benchmark
+    public byte[] longXor() {
+        Crypto.xor(this.packet, this.key);
+        return this.packet;
+    }
+}
@@ -9,6 +9,7 @@ import emu.grasscutter.command.*;
 import emu.grasscutter.config.ConfigContainer;
 import emu.grasscutter.data.ResourceLoader;
 import emu.grasscutter.database.*;
+import emu.grasscutter.net.packet.PacketTracer;
 import emu.grasscutter.plugin.PluginManager;
 import emu.grasscutter.plugin.api.ServerHelper;
 import emu.grasscutter.server.dispatch.DispatchServer;
@@ -33,7 +34,7 @@ import org.slf4j.LoggerFactory;
 
 public final class Grasscutter {
     public static final File configFile = new File("./config.json");
-    public static final Reflections reflector = new Reflections("emu.grasscutter");
+    public static final Reflections reflector = ReflectionIndex.load();
     @Getter private static final Logger logger = (Logger) LoggerFactory.getLogger(Grasscutter.class);
 
     @Getter public static ConfigContainer config;
@@ -198,6 +199,10 @@ public final class Grasscutter {
         if (pluginManager != null) pluginManager.disablePlugins();
         // Shutdown the game server.
         if (gameServer != null) gameServer.onServerShutdown();
+        // Write the packets still waiting to be logged, and close the capture.
+        PacketTracer.shutdown();
+        // Write everything still waiting in the write-behind queue.
+        WriteBehindQueue.flushNow();
 
         try {
             // Wait for Grasscutter's thread pool to finish.
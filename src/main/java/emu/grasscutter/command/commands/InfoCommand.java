@@ -2,9 +2,13 @@ package emu.grasscutter.command.commands;
 
 import emu.grasscutter.*;
 import emu.grasscutter.command.*;
+import emu.grasscutter.database.*;
 import emu.grasscutter.game.player.Player;
+import emu.grasscutter.scripts.SceneScriptManager;
+import emu.grasscutter.server.game.GameSessionManager;
 import emu.grasscutter.tools.Tools;
 
+import java.util.Arrays;
 import java.util.List;
 
 @Command(label = "info", aliases = {"troubleshoot", "helpme"},
@@ -20,6 +24,13 @@ public final class InfoCommand implements CommandHandler {
         var playerCount = Grasscutter.getGameServer()
             .getPlayers().size();
         var resourceInfo = Tools.resourcesInfo();
+        var logicQueues = Arrays.toString(
+            GameSessionManager.getLogicThreads().getPendingTasks());
+        var tickStats = Grasscutter.getGameServer().getTickStats();
+        var pendingWrites = WriteBehindQueue.getPendingCount();
+        var saveStats = Database.saveStats;
+        var scriptEvents = SceneScriptManager.eventStats;
+        var scriptLanes = SceneScriptManager.eventScheduler;
 
         // Collect configuration information.
         var config = Grasscutter.getConfig();
@@ -48,6 +59,12 @@ public final class InfoCommand implements CommandHandler {
             Server Information
             Revision: %s
             Player Count: %d
+            Logic Queues: %s
+            Tick Stats: %s
+            Pending Writes: %d
+            Save Stats: %s
+            Script Events: %s
+            Script Lanes: %s
             Questing Enabled: %s
             Scripts Enabled: %s
             Using Fast Require: %s
@@ -56,7 +73,7 @@ public final class InfoCommand implements CommandHandler {
 
             discord.gg/2AxayFampP"""
                     .formatted(
-                            build, playerCount, questingEnabled, scriptsEnabled, true,
+                            build, playerCount, logicQueues, tickStats, pendingWrites, saveStats, scriptEvents, scriptLanes, questingEnabled, scriptsEnabled, true,
                             System.getProperty("os.name"), resourceInfo.toString()
                     )
             );
@@ -37,9 +37,27 @@ public class ConfigContainer {
      *              encryption key used for packets is a constant or randomly generated.
      * Version 14 - 'game.timeout' was added to control the UDP client timeout.
      * Version 15 - Discard 'server.fastRequire'.
+     * Version 16 - 'game.logicThreads' was added to control how many threads
+     *              game sessions are spread across.
+     * Version 17 - 'game.packetTrace' was added for sampling, rate limiting
+     *              and capturing logged packets.
+     * Version 18 - 'game.tickThreads' was added to control how many threads
+     *              worlds and players are ticked on.
+     * Version 19 - 'game.tickRate' was added to control how often region
+     *              and challenge checks run.
+     * Version 20 - 'databaseInfo.partialUpdates' was added to control whether
+     *              players, avatars and items only write their changed fields.
+     * Version 21 - 'databaseInfo.writeBehindBatchSize' and 'writeBehindInterval'
+     *              were added to control how game objects are batched when saved.
+     * Version 22 - 'databaseInfo.idBlockSize' was added to control how many IDs
+     *              are reserved from the database at once.
+     * Version 23 - 'game.compactResources' was added to pack read-only resource
+     *              tables into sorted arrays after loading.
+     * Version 24 - 'game.useResourceSnapshot' was added to reuse parsed resource
+     *              files from the previous boot.
      */
     private static int version() {
-        return 15;
+        return 24;
     }
 
     /**
@@ -94,6 +112,10 @@ public class ConfigContainer {
     public static class Database {
         public DataStore server = new DataStore();
         public DataStore game = new DataStore();
+        public boolean partialUpdates = true;
+        public int writeBehindBatchSize = 500;
+        public int writeBehindInterval = 1000; // In milliseconds. 0 writes immediately.
+        public int idBlockSize = 1000;
 
         public static class DataStore {
             public String connectionUri = "mongodb://localhost:27017";
@@ -179,6 +201,14 @@ public class ConfigContainer {
         public boolean enableScriptInBigWorld = false;
         public boolean enableConsole = true;
 
+        /* Amount of threads packets are handled on. Each session stays on one thread. (0 = one per CPU core) */
+        public int logicThreads = 0;
+
+        /* Amount of threads worlds are ticked on. Each world stays on one thread. (0 = one per CPU core) */
+        public int tickThreads = 0;
+        /* Fast ticks per second, used for region and challenge checks. Other game logic ticks once per second. */
+        public int tickRate = 10;
+
         /* Kcp internal work interval (milliseconds) */
         public int kcpInterval = 20;
         /* Time to wait (in seconds) before terminating a connection. */
@@ -190,8 +220,14 @@ public class ConfigContainer {
         public boolean isShowPacketPayload = false;
         /* Show annoying loop packets or no */
         public boolean isShowLoopPackets = false;
+        /* Sampling, rate limits and capture files for logged packets */
+        public PacketTrace packetTrace = new PacketTrace();
 
         public boolean cacheSceneEntitiesEveryRun = false;
+        /* Packs item, monster, avatar and reward data into sorted arrays to save memory. Lookups become a binary search. */
+        public boolean compactResources = false;
+        /* Keeps parsed resource files in 'cache/resources.bin'. Unchanged files are read from it on the next boot. */
+        public boolean useResourceSnapshot = true;
 
         public GameOptions gameOptions = new GameOptions();
         public JoinOptions joinOptions = new JoinOptions();
@@ -250,6 +286,17 @@ public class ConfigContainer {
         public ServerDebugMode logRequests = ServerDebugMode.ALL;
     }
 
+    public static class PacketTrace {
+        /* Only every n-th packet of each opcode is logged. */
+        public int sampleEvery = 1;
+        /* The maximum amount of packets logged per second. (0 = unlimited) */
+        public int maxPerSecond = 1000;
+        /* The amount of packets which can wait to be logged before new ones are skipped. */
+        public int bufferSize = 8192;
+        /* Write logged packets to a capture file in the packets folder, which can be replayed. */
+        public boolean capture = false;
+    }
+
     public static class Encryption {
         public boolean useEncryption = false;
         /* Should 'https' be appended to URLs? */
@@ -0,0 +1,244 @@
+package emu.grasscutter.data;
+
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.objects.*;
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * A resource table which can be packed once loading is done.
+ *
+ * <p>While loading, entries are kept in a hash map. {@link #compact(Map)} moves them into two
+ * sorted arrays, an {@code int[]} of IDs and an array of resources, which are looked up with a
+ * binary search. This drops the hash map's empty slots, and strings which repeat across resources
+ * (types, icons, rules) are replaced with one shared instance.
+ *
+ * <p>Resources keep their classes and getters. Entries put after compacting replace existing ones,
+ * or are kept in a hash map until the next compaction.
+ *
+ * <p>Until the first compaction, the table is as thread-safe as a plain hash map: it may be read
+ * from many threads once loading is done. After compacting, changes are copied into new arrays and
+ * maps, so the table may be read while it is changed. Changes are serialized.
+ */
+public final class CompactResourceMap<V> extends AbstractInt2ObjectMap<V> {
+    private static final long serialVersionUID = 1L;
+
+    /* Readers load the staging map before the table, see compact(). */
+    private volatile Table table = Table.EMPTY;
+    private volatile Int2ObjectOpenHashMap<V> staging = new Int2ObjectOpenHashMap<>();
+    private volatile boolean compacted;
+
+    /**
+     * @return True if every entry is stored in the sorted arrays.
+     */
+    public boolean isCompact() {
+        return this.staging == null;
+    }
+
+    /**
+     * Moves every entry into the sorted arrays, and deduplicates the resources' strings.
+     *
+     * @param strings Strings already in use, shared between tables.
+     */
+    public synchronized void compact(Map<String, String> strings) {
+        var table = this.table;
+        var staging = this.staging;
+        if (staging != null && !staging.isEmpty()) {
+            var keys = Arrays.copyOf(table.keys(), table.keys().length + staging.size());
+            var values = Arrays.copyOf(table.values(), keys.length);
+
+            var index = table.keys().length;
+            for (var entry : staging.int2ObjectEntrySet()) {
+                keys[index] = entry.getIntKey();
+                values[index++] = entry.getValue();
+            }
+
+            // Sort both arrays by key.
+            it.unimi.dsi.fastutil.Arrays.quickSort(
+                    0,
+                    keys.length,
+                    (a, b) -> Integer.compare(keys[a], keys[b]),
+                    (a, b) -> {
+                        IntArrays.swap(keys, a, b);
+                        ObjectArrays.swap(values, a, b);
+                    });
+
+            table = new Table(keys, values);
+        }
+
+        // Publish the table first, so a reader which sees no staging map sees the new table.
+        this.table = table;
+        this.staging = null;
+        this.compacted = true;
+
+        for (var value : table.values()) {
+            CompactResourceMap.deduplicate(value, strings);
+        }
+    }
+
+    /** Replaces the object's string fields with the equal instance from the pool. */
+    private static void deduplicate(Object value, Map<String, String> strings) {
+        for (var type = value.getClass(); type != Object.class; type = type.getSuperclass()) {
+            for (var field : type.getDeclaredFields()) {
+                var modifiers = field.getModifiers();
+                if (field.getType() != String.class
+                        || Modifier.isStatic(modifiers)
+                        || Modifier.isFinal(modifiers)) continue;
+
+                try {
+                    field.setAccessible(true);
+                    var string = (String) field.get(value);
+                    if (string != null) field.set(value, strings.computeIfAbsent(string, s -> s));
+                } catch (ReflectiveOperationException | RuntimeException ignored) {
+                    // Fields of classes in other modules can not be made accessible.
+                }
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        var staging = this.staging;
+        var table = this.table;
+        var index = Arrays.binarySearch(table.keys(), key);
+        if (index >= 0) return (V) table.values()[index];
+
+        return staging == null ? this.defRetValue : staging.getOrDefault(key, this.defRetValue);
+    }
+
+    @Override
+    public boolean containsKey(int key) {
+        var staging = this.staging;
+        if (Arrays.binarySearch(this.table.keys(), key) >= 0) return true;
+
+        return staging != null && staging.containsKey(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized V put(int key, V value) {
+        var table = this.table;
+        var index = Arrays.binarySearch(table.keys(), key);
+        if (index >= 0) {
+            var values = table.values().clone();
+            var previous = (V) values[index];
+            values[index] = value;
+            this.table = new Table(table.keys(), values);
+            return previous;
+        }
+
+        if (!this.compacted) return this.staging.put(key, value);
+
+        var staging =
+                this.staging == null ? new Int2ObjectOpenHashMap<V>() : new Int2ObjectOpenHashMap<>(this.staging);
+        var previous = staging.put(key, value);
+        this.staging = staging;
+        return previous;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized V remove(int key) {
+        var table = this.table;
+        var index = Arrays.binarySearch(table.keys(), key);
+        if (index < 0) {
+            if (this.staging == null || !this.staging.containsKey(key)) return this.defRetValue;
+            if (!this.compacted) return this.staging.remove(key);
+
+            var staging = new Int2ObjectOpenHashMap<>(this.staging);
+            var previous = staging.remove(key);
+            this.staging = staging;
+            return previous;
+        }
+
+        var previous = (V) table.values()[index];
+        var keys = new int[table.keys().length - 1];
+        var values = new Object[keys.length];
+        System.arraycopy(table.keys(), 0, keys, 0, index);
+        System.arraycopy(table.values(), 0, values, 0, index);
+        System.arraycopy(table.keys(), index + 1, keys, index, keys.length - index);
+        System.arraycopy(table.values(), index + 1, values, index, keys.length - index);
+
+        this.table = new Table(keys, values);
+        return previous;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.staging = new Int2ObjectOpenHashMap<>();
+        this.table = Table.EMPTY;
+        this.compacted = false;
+    }
+
+    @Override
+    public int size() {
+        var staging = this.staging;
+        return this.table.keys().length + (staging == null ? 0 : staging.size());
+    }
+
+    @Override
+    public ObjectSet<Int2ObjectMap.Entry<V>> int2ObjectEntrySet() {
+        return new AbstractObjectSet<>() {
+            @Override
+            public int size() {
+                return CompactResourceMap.this.size();
+            }
+
+            @Override
+            public ObjectIterator<Int2ObjectMap.Entry<V>> iterator() {
+                return new EntryIterator();
+            }
+        };
+    }
+
+    /** The sorted arrays. Never changed once published. */
+    private record Table(int[] keys, Object[] values) {
+        static final Table EMPTY = new Table(IntArrays.EMPTY_ARRAY, ObjectArrays.EMPTY_ARRAY);
+    }
+
+    /** Iterates over the sorted arrays, then the entries put since the last compaction. */
+    private final class EntryIterator implements ObjectIterator<Int2ObjectMap.Entry<V>> {
+        private final Int2ObjectOpenHashMap<V> stagingMap = CompactResourceMap.this.staging;
+        private final Table table = CompactResourceMap.this.table;
+        private final Iterator<Int2ObjectMap.Entry<V>> staging =
+                this.stagingMap == null
+                        ? ObjectIterators.emptyIterator()
+                        : this.stagingMap.int2ObjectEntrySet().iterator();
+        private int index;
+        private Int2ObjectMap.Entry<V> last;
+        private boolean lastStaged;
+
+        @Override
+        public boolean hasNext() {
+            return this.index < this.table.keys().length || this.staging.hasNext();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Int2ObjectMap.Entry<V> next() {
+            if (this.index < this.table.keys().length) {
+                var index = this.index++;
+                this.lastStaged = false;
+                return this.last = new BasicEntry<>(this.table.keys()[index], (V) this.table.values()[index]);
+            }
+            this.lastStaged = true;
+            return this.last = this.staging.next();
+        }
+
+        @Override
+        public void remove() {
+            if (this.last == null) throw new IllegalStateException();
+
+            // Before the first compaction, the staging map is changed in place.
+            if (this.lastStaged && !CompactResourceMap.this.compacted) {
+                synchronized (CompactResourceMap.this) {
+                    this.staging.remove();
+                }
+            } else {
+                CompactResourceMap.this.remove(this.last.getIntKey());
+            }
+            this.last = null;
+        }
+    }
+}
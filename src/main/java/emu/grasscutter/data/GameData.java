@@ -138,7 +138,7 @@ public final class GameData {
             new Int2ObjectLinkedOpenHashMap<>();
 
     @Getter
-    private static final Int2ObjectMap<AvatarData> avatarDataMap = new Int2ObjectOpenHashMap<>();
+    private static final Int2ObjectMap<AvatarData> avatarDataMap = new CompactResourceMap<>();
 
     @Getter
     private static final Int2ObjectMap<AvatarFetterLevelData> avatarFetterLevelDataMap =
@@ -317,7 +317,7 @@ public final class GameData {
     private static final Int2ObjectMap<InvestigationMonsterData> investigationMonsterDataMap =
             new Int2ObjectOpenHashMap<>();
 
-    @Getter private static final Int2ObjectMap<ItemData> itemDataMap = new Int2ObjectOpenHashMap<>();
+    @Getter private static final Int2ObjectMap<ItemData> itemDataMap = new CompactResourceMap<>();
 
     @Getter
     private static final Int2ObjectMap<MapLayerData> mapLayerDataMap = new Int2ObjectOpenHashMap<>();
@@ -335,7 +335,7 @@ public final class GameData {
             new Int2ObjectOpenHashMap<>();
 
     @Getter
-    private static final Int2ObjectMap<MonsterData> monsterDataMap = new Int2ObjectOpenHashMap<>();
+    private static final Int2ObjectMap<MonsterData> monsterDataMap = new CompactResourceMap<>();
 
     @Getter
     private static final Int2ObjectMap<MonsterDescribeData> monsterDescribeDataMap =
@@ -387,7 +387,7 @@ public final class GameData {
             new Int2ObjectOpenHashMap<>();
 
     @Getter
-    private static final Int2ObjectMap<RewardData> rewardDataMap = new Int2ObjectOpenHashMap<>();
+    private static final Int2ObjectMap<RewardData> rewardDataMap = new CompactResourceMap<>();
 
     @Getter
     private static final Int2ObjectMap<RewardPreviewData> rewardPreviewDataMap =
@@ -652,6 +652,23 @@ public final class GameData {
         return Optional.ofNullable(getRelicLevelData(rankLevel, level)).map(d -> d.getExp()).orElse(0);
     }
 
+    /**
+     * Packs the read-only tables which use {@link CompactResourceMap}.
+     *
+     * @return The amount of tables compacted.
+     */
+    public static int compactResources() {
+        var strings = new HashMap<String, String>();
+        var compacted = 0;
+        for (var map : List.of(avatarDataMap, itemDataMap, monsterDataMap, rewardDataMap)) {
+            if (map instanceof CompactResourceMap<?> compact) {
+                compact.compact(strings);
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
     // Generic getter
     public static Int2ObjectMap<?> getMapByResourceDef(Class<?> resourceDefinition) {
         Int2ObjectMap<?> map = null;
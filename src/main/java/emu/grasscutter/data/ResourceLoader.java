@@ -1,5 +1,6 @@
 package emu.grasscutter.data;
 
+import static emu.grasscutter.config.Configuration.GAME_INFO;
 import static emu.grasscutter.utils.FileUtils.*;
 import static emu.grasscutter.utils.lang.Language.translate;
 
@@ -84,53 +85,83 @@ public final class ResourceLoader {
         if (loadedAll) return;
         Grasscutter.getLogger().info(translate("messages.status.resources.loading"));
 
-        // Initialize the script loader.
-        ScriptLoader.init();
-
-        loadConfigData();
-        // Load ability lists
-        loadAbilityEmbryos();
-        loadTalents();
-        loadOpenConfig();
-        loadAbilityModifiers();
-        // Load resources
-        loadResources(true);
-        // Process into depots
-        GameDepot.load();
-        // Load spawn data and quests
-        loadSpawnData();
-        loadQuests();
-        loadScriptSceneData();
-        // Load scene points - must be done AFTER resources are loaded
-        loadScenePoints();
-        loadSceneWeatherAreas();
-        // Load default home layout
-        loadHomeworldDefaultSaveData();
-        loadNpcBornData();
-        loadRoutes();
-        loadBlossomResources();
-        cacheTalentLevelSets();
-        // Load activities.
-        ActivityManager.loadActivityConfigData();
-
-        // Load custom server resources.
-        loadConfigLevelEntityData();
-        loadQuestShareConfig();
-        loadGadgetMappings();
-        loadSubfieldMappings();
-        loadWeatherMappings();
-        loadMonsterMappings();
-        loadActivityCondGroups();
-        loadGroupReplacements();
-        loadTrialAvatarCustomData();
-        loadGlobalCombatConfig();
-
-        EntityControllerScriptManager.load();
+        // Read parsed files from the previous boot where they are unchanged.
+        if (GAME_INFO.useResourceSnapshot) ResourceSnapshot.open();
+        try {
+            loadAllFiles();
+        } finally {
+            ResourceSnapshot.close();
+        }
 
         Grasscutter.getLogger().info(translate("messages.status.resources.finish"));
         loadedAll = true;
     }
 
+    private static void loadAllFiles() {
+        // Steps only wait for the steps whose data they read.
+        val graph =
+                new ResourceTaskGraph()
+                        .add("scripts", ScriptLoader::init)
+                        // Load ability lists and entity configs, which resources read in onLoad.
+                        .add("configData", ResourceLoader::loadConfigData)
+                        .add("abilityEmbryos", ResourceLoader::loadAbilityEmbryos)
+                        .add("talents", ResourceLoader::loadTalents)
+                        .add("openConfig", ResourceLoader::loadOpenConfig)
+                        .add("abilityModifiers", ResourceLoader::loadAbilityModifiers)
+                        // Load resources
+                        .add(
+                                "resources",
+                                () -> loadResources(true),
+                                "scripts",
+                                "configData",
+                                "abilityEmbryos",
+                                "talents",
+                                "openConfig",
+                                "abilityModifiers")
+                        // Process into depots
+                        .add("depots", GameDepot::load, "resources")
+                        // Load spawn data and quests
+                        .add("spawnData", ResourceLoader::loadSpawnData)
+                        .add("quests", ResourceLoader::loadQuests, "resources")
+                        .add("scriptSceneData", ResourceLoader::loadScriptSceneData)
+                        // Load scene points - must be done AFTER resources are loaded
+                        .add("scenePoints", ResourceLoader::loadScenePoints, "resources")
+                        .add("sceneWeatherAreas", ResourceLoader::loadSceneWeatherAreas)
+                        // Load default home layout
+                        .add("homeworldDefaultSaveData", ResourceLoader::loadHomeworldDefaultSaveData)
+                        .add("npcBornData", ResourceLoader::loadNpcBornData)
+                        .add("routes", ResourceLoader::loadRoutes)
+                        .add("blossomResources", ResourceLoader::loadBlossomResources)
+                        .add("talentLevelSets", ResourceLoader::cacheTalentLevelSets, "resources")
+                        // Load activities.
+                        .add("activities", ActivityManager::loadActivityConfigData, "resources")
+                        // Load custom server resources.
+                        .add("configLevelEntityData", ResourceLoader::loadConfigLevelEntityData)
+                        .add("gadgetMappings", ResourceLoader::loadGadgetMappings)
+                        .add("subfieldMappings", ResourceLoader::loadSubfieldMappings)
+                        .add("weatherMappings", ResourceLoader::loadWeatherMappings)
+                        .add("monsterMappings", ResourceLoader::loadMonsterMappings)
+                        .add("activityCondGroups", ResourceLoader::loadActivityCondGroups)
+                        .add("trialAvatarCustomData", ResourceLoader::loadTrialAvatarCustomData, "resources")
+                        .add("globalCombatConfig", ResourceLoader::loadGlobalCombatConfig)
+                        // Lua scripts share one engine, so these run one after another.
+                        .add("questShareConfig", ResourceLoader::loadQuestShareConfig, "resources")
+                        .add("groupReplacements", ResourceLoader::loadGroupReplacements, "questShareConfig")
+                        .add("entityControllers", EntityControllerScriptManager::load, "groupReplacements");
+
+        val result = graph.run(Runtime.getRuntime().availableProcessors());
+        result.errors().forEach(
+                error ->
+                        Grasscutter.getLogger()
+                                .error("Error loading resources in step " + error.name(), error.cause()));
+        result.timings().stream()
+                .sorted(Comparator.comparingLong(ResourceTaskGraph.Timing::nanos).reversed())
+                .forEach(
+                        timing ->
+                                Grasscutter.getLogger()
+                                        .debug("Resource step {} took {}ms.", timing.name(), timing.nanos() / 1000000));
+    }
+
     public static void loadResources() {
         loadResources(false);
     }
@@ -166,6 +197,10 @@ public final class ResourceLoader {
                 pair ->
                         Grasscutter.getLogger()
                                 .error("Error loading resource file: " + pair.left(), pair.right()));
+        if (GAME_INFO.compactResources) {
+            val compacted = GameData.compactResources();
+            Grasscutter.getLogger().debug("Compacted " + compacted + " resource tables.");
+        }
         long endTime = System.nanoTime();
         long ns = (endTime - startTime); // divide by 1000000 to get milliseconds.
         Grasscutter.getLogger().debug("Loading resources took " + ns + "ns == " + ns / 1000000 + "ms");
@@ -0,0 +1,430 @@
+package emu.grasscutter.data;
+
+import com.google.gson.*;
+import com.google.gson.internal.LazilyParsedNumber;
+import emu.grasscutter.utils.FileUtils;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.*;
+import org.slf4j.*;
+
+/**
+ * A binary image of parsed resource files, which lets later boots skip parsing JSON text.
+ *
+ * <p>Each file is stored as its parsed JSON tree in a compact tagged format, keyed by the file's
+ * location, modification time and size. A file which changed since the image was written is parsed
+ * again. Entries are read from the image on demand with positional reads, so resources loaded in
+ * parallel are also decoded in parallel.
+ *
+ * <p>While a snapshot is open, path-based loads in {@link emu.grasscutter.utils.JsonUtils} go
+ * through it. Closing the snapshot writes a new image holding every file read since it was opened.
+ * Files parsed in the meantime are encoded to a spill file next to the image as they are read, so
+ * only their offsets are kept in memory.
+ */
+public final class ResourceSnapshot {
+    /* Image layout: MAGIC, VERSION, count, (key, modified, size, length) headers, then the bodies in the same order. */
+    private static final int MAGIC = 0x47435253; // "GCRS"
+    private static final int VERSION = 1;
+    /* Logged without the server's logger, so snapshots work before the server is set up. */
+    private static final Logger logger = LoggerFactory.getLogger("Resources");
+
+    /* Value tags. */
+    private static final byte NULL = 0,
+            TRUE = 1,
+            FALSE = 2,
+            LONG = 3,
+            NUMBER = 4,
+            STRING = 5,
+            STRING_REF = 6,
+            ARRAY = 7,
+            OBJECT = 8;
+
+    private static volatile ResourceSnapshot current;
+
+    private final Path path;
+    private final FileChannel image;
+    private final Path spillPath;
+    private final FileChannel spill;
+    private final Map<String, Entry> stored;
+    private final Map<String, Entry> used = new ConcurrentHashMap<>();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicLong spilled = new AtomicLong();
+
+    private ResourceSnapshot(
+            Path path, FileChannel image, Path spillPath, FileChannel spill, Map<String, Entry> stored) {
+        this.path = path;
+        this.image = image;
+        this.spillPath = spillPath;
+        this.spill = spill;
+        this.stored = stored;
+    }
+
+    /** Opens the snapshot in the cache folder. Files are read through it until {@link #close()}. */
+    public static void open() {
+        ResourceSnapshot.open(FileUtils.getCachePath("resources.bin"));
+    }
+
+    /**
+     * Opens a snapshot. Files are read through it until {@link #close()}.
+     *
+     * @param path The image file, created when the snapshot is closed if it does not exist.
+     */
+    public static synchronized void open(Path path) {
+        if (current != null) return;
+
+        FileChannel image = null;
+        var stored = new HashMap<String, Entry>();
+        if (Files.exists(path)) {
+            try {
+                image = FileChannel.open(path, StandardOpenOption.READ);
+                ResourceSnapshot.readHeaders(image, stored);
+            } catch (IOException exception) {
+                logger.warn("Unable to read the resource snapshot, it will be rebuilt.");
+                logger.debug("Failed to read " + path, exception);
+                stored.clear();
+            }
+        }
+
+        var spillPath = path.resolveSibling(path.getFileName() + ".spill");
+        FileChannel spill;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            spill =
+                    FileChannel.open(
+                            spillPath,
+                            StandardOpenOption.CREATE,
+                            StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.READ,
+                            StandardOpenOption.WRITE);
+        } catch (IOException exception) {
+            logger.warn("Unable to open the resource snapshot, files will be parsed.");
+            logger.debug("Failed to open " + spillPath, exception);
+            ResourceSnapshot.closeQuietly(image);
+            return;
+        }
+
+        current = new ResourceSnapshot(path, image, spillPath, spill, stored);
+    }
+
+    /** Writes every file read since the snapshot was opened to a new image, and closes it. */
+    public static synchronized void close() {
+        var snapshot = current;
+        if (snapshot == null) return;
+        current = null;
+
+        try {
+            snapshot.write();
+            logger.debug(
+                    "Read {} of {} resource files from the snapshot.",
+                    snapshot.hits.get(),
+                    snapshot.used.size());
+        } catch (IOException exception) {
+            logger.warn("Unable to write the resource snapshot.", exception);
+        } finally {
+            ResourceSnapshot.closeQuietly(snapshot.image);
+            ResourceSnapshot.closeQuietly(snapshot.spill);
+            try {
+                Files.deleteIfExists(snapshot.spillPath);
+            } catch (IOException ignored) {
+                // It is truncated when the next snapshot is opened.
+            }
+        }
+    }
+
+    /**
+     * Reads a file's JSON tree through the open snapshot.
+     *
+     * @param file The JSON file.
+     * @return The parsed tree, or null if no snapshot is open.
+     */
+    public static JsonElement read(Path file) throws IOException {
+        var snapshot = current;
+        return snapshot == null ? null : snapshot.load(file);
+    }
+
+    private JsonElement load(Path file) throws IOException {
+        var key = file.toUri().toString();
+        var attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        var modified = attributes.lastModifiedTime().toMillis();
+        var size = attributes.size();
+
+        var entry = this.stored.get(key);
+        if (entry != null && entry.modified() == modified && entry.size() == size) {
+            try {
+                var body = ByteBuffer.allocate(entry.length());
+                while (body.hasRemaining()) {
+                    if (this.image.read(body, entry.offset() + body.position()) < 0) throw new EOFException();
+                }
+
+                var tree = new Decoder(body.flip()).read();
+                this.used.put(key, entry);
+                this.hits.incrementAndGet();
+                return tree;
+            } catch (IOException | RuntimeException exception) {
+                logger.debug("Failed to read {} from the resource snapshot.", key, exception);
+            }
+        }
+
+        JsonElement tree;
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            tree = JsonParser.parseReader(reader);
+        }
+
+        var encoder = new Encoder();
+        encoder.write(tree);
+        try {
+            var offset = this.spilled.getAndAdd(encoder.size());
+            ResourceSnapshot.writeFully(this.spill, encoder.buffer(), offset);
+            this.used.put(key, new Entry(key, modified, size, offset, encoder.size(), true));
+        } catch (IOException exception) {
+            // The file is left out of the next image, and parsed again next boot.
+            logger.debug("Failed to spill {} to the resource snapshot.", key, exception);
+        }
+        return tree;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long offset)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void readHeaders(FileChannel image, Map<String, Entry> stored) throws IOException {
+        var input = new DataInputStream(new BufferedInputStream(Channels.newInputStream(image)));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("Not a resource snapshot, or an older version.");
+        }
+
+        var count = input.readInt();
+        var headers = new ArrayList<Entry>(count);
+        var headerSize = 12L;
+        for (var i = 0; i < count; i++) {
+            var key = input.readNBytes(input.readInt());
+            headers.add(
+                    new Entry(
+                            new String(key, StandardCharsets.UTF_8),
+                            input.readLong(),
+                            input.readLong(),
+                            0,
+                            input.readInt(),
+                            false));
+            headerSize += 4 + key.length + 20;
+        }
+
+        var offset = headerSize;
+        for (var header : headers) {
+            stored.put(
+                    header.key(),
+                    new Entry(header.key(), header.modified(), header.size(), offset, header.length(), false));
+            offset += header.length();
+        }
+    }
+
+    private void write() throws IOException {
+        // Skip rewriting an image which would not change.
+        if (this.hits.get() == this.used.size() && this.used.size() == this.stored.size()) return;
+
+        var entries = new ArrayList<>(this.used.values());
+        entries.sort(Comparator.comparing(Entry::key));
+
+        var temporary = this.path.resolveSibling(this.path.getFileName() + ".tmp");
+        Files.createDirectories(this.path.toAbsolutePath().getParent());
+        try (var output =
+                new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(entries.size());
+            for (var entry : entries) {
+                var key = entry.key().getBytes(StandardCharsets.UTF_8);
+                output.writeInt(key.length);
+                output.write(key);
+                output.writeLong(entry.modified());
+                output.writeLong(entry.size());
+                output.writeInt(entry.length());
+            }
+
+            var buffer = ByteBuffer.allocate(1 << 16);
+            for (var entry : entries) {
+                // Copy the body from the spill file or the previous image.
+                var source = entry.spilled() ? this.spill : this.image;
+                for (long copied = 0; copied < entry.length(); ) {
+                    buffer.clear().limit((int) Math.min(buffer.capacity(), entry.length() - copied));
+                    var read = source.read(buffer, entry.offset() + copied);
+                    if (read < 0) throw new EOFException();
+                    output.write(buffer.array(), 0, read);
+                    copied += read;
+                }
+            }
+        }
+
+        // The previous image must be closed before it can be replaced.
+        if (this.image != null) this.image.close();
+        Files.move(temporary, this.path, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** A file in the image. Bodies of files parsed this boot are in the spill file. */
+    private record Entry(String key, long modified, long size, long offset, int length, boolean spilled) {}
+
+    /** Writes JSON trees in the tagged format. Repeated strings are written once per file. */
+    private static final class Encoder extends ByteArrayOutputStream {
+        private final Map<String, Integer> strings = new HashMap<>();
+
+        Encoder() {
+            super(1 << 12);
+        }
+
+        /** @return The encoded bytes, without copying them. */
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(this.buf, 0, this.count);
+        }
+
+        void write(JsonElement element) {
+            if (element == null || element.isJsonNull()) {
+                this.write(NULL);
+            } else if (element instanceof JsonPrimitive primitive) {
+                if (primitive.isBoolean()) {
+                    this.write(primitive.getAsBoolean() ? TRUE : FALSE);
+                } else if (primitive.isNumber()) {
+                    // Keep the original text unless it is a plain integer.
+                    var text = primitive.getAsNumber().toString();
+                    var value = ResourceSnapshot.parseLong(text);
+                    if (value != null) {
+                        this.write(LONG);
+                        this.writeVarLong((value << 1) ^ (value >> 63));
+                    } else {
+                        this.write(NUMBER);
+                        this.writeString(text);
+                    }
+                } else {
+                    this.writeString(primitive.getAsString());
+                }
+            } else if (element instanceof JsonArray array) {
+                this.write(ARRAY);
+                this.writeVarLong(array.size());
+                array.forEach(this::write);
+            } else {
+                var object = element.getAsJsonObject();
+                this.write(OBJECT);
+                this.writeVarLong(object.size());
+                for (var member : object.entrySet()) {
+                    this.writeString(member.getKey());
+                    this.write(member.getValue());
+                }
+            }
+        }
+
+        private void writeString(String string) {
+            var index = this.strings.get(string);
+            if (index != null) {
+                this.write(STRING_REF);
+                this.writeVarLong(index);
+                return;
+            }
+
+            this.strings.put(string, this.strings.size());
+            var bytes = string.getBytes(StandardCharsets.UTF_8);
+            this.write(STRING);
+            this.writeVarLong(bytes.length);
+            this.write(bytes, 0, bytes.length);
+        }
+
+        private void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                this.write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            this.write((int) value);
+        }
+    }
+
+    /** Reads JSON trees written by {@link Encoder}. */
+    private static final class Decoder {
+        private final ByteBuffer buffer;
+        private final List<String> strings = new ArrayList<>();
+
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        JsonElement read() {
+            var tag = this.buffer.get();
+            return switch (tag) {
+                case NULL -> JsonNull.INSTANCE;
+                case TRUE -> new JsonPrimitive(true);
+                case FALSE -> new JsonPrimitive(false);
+                case LONG -> {
+                    var value = this.readVarLong();
+                    yield new JsonPrimitive((value >>> 1) ^ -(value & 1));
+                }
+                case NUMBER -> new JsonPrimitive(new LazilyParsedNumber(this.readString(this.buffer.get())));
+                case STRING, STRING_REF -> new JsonPrimitive(this.readString(tag));
+                case ARRAY -> {
+                    var size = (int) this.readVarLong();
+                    var array = new JsonArray(size);
+                    for (var i = 0; i < size; i++) array.add(this.read());
+                    yield array;
+                }
+                case OBJECT -> {
+                    var size = (int) this.readVarLong();
+                    var object = new JsonObject();
+                    for (var i = 0; i < size; i++) {
+                        var key = this.readString(this.buffer.get());
+                        object.add(key, this.read());
+                    }
+                    yield object;
+                }
+                default -> throw new IllegalStateException("Unknown tag in resource snapshot.");
+            };
+        }
+
+        private String readString(byte tag) {
+            if (tag == STRING_REF) return this.strings.get((int) this.readVarLong());
+            if (tag != STRING) throw new IllegalStateException("Expected a string in resource snapshot.");
+
+            var length = (int) this.readVarLong();
+            var string =
+                    new String(
+                            this.buffer.array(),
+                            this.buffer.arrayOffset() + this.buffer.position(),
+                            length,
+                            StandardCharsets.UTF_8);
+            this.buffer.position(this.buffer.position() + length);
+            this.strings.add(string);
+            return string;
+        }
+
+        private long readVarLong() {
+            long value = 0;
+            for (var shift = 0; ; shift += 7) {
+                var b = this.buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+
+    /** @return The value, if the text is exactly its decimal form. */
+    private static Long parseLong(String text) {
+        try {
+            var value = Long.parseLong(text);
+            return Long.toString(value).equals(text) ? value : null;
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package emu.grasscutter.data;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Runs resource loading steps on a bounded pool. A step starts once the steps it depends on have
+ * finished, whether they succeeded or not, so one broken folder does not hold back the rest.
+ *
+ * <p>Errors thrown by steps are collected and returned with each step's duration, to be logged
+ * once everything is done.
+ */
+final class ResourceTaskGraph {
+    private final Map<String, Task> tasks = new LinkedHashMap<>();
+
+    /**
+     * Adds a step. Dependencies must be added before the steps which need them.
+     *
+     * @param name The step's name, used in timings and errors.
+     * @param step The loading code.
+     * @param dependencies The names of steps which must finish first.
+     * @return This graph.
+     */
+    ResourceTaskGraph add(String name, Step step, String... dependencies) {
+        for (var dependency : dependencies) {
+            if (!this.tasks.containsKey(dependency)) {
+                throw new IllegalArgumentException("Unknown dependency " + dependency + " of " + name);
+            }
+        }
+
+        this.tasks.put(name, new Task(name, step, dependencies));
+        return this;
+    }
+
+    /**
+     * Runs every step, and waits for all of them to finish.
+     *
+     * @param threads The amount of steps which may run at once.
+     * @return How long each step took, and what went wrong.
+     */
+    Result run(int threads) {
+        var pool = Executors.newFixedThreadPool(threads, new DefaultThreadFactory("resource-loader", true));
+        var timings = new ConcurrentLinkedQueue<Timing>();
+        var errors = new ConcurrentLinkedQueue<Error>();
+
+        try {
+            var futures = new HashMap<String, CompletableFuture<Void>>();
+            for (var task : this.tasks.values()) {
+                var dependencies =
+                        Arrays.stream(task.dependencies())
+                                .map(futures::get)
+                                .toArray(CompletableFuture[]::new);
+
+                futures.put(
+                        task.name(),
+                        CompletableFuture.allOf(dependencies)
+                                .thenRunAsync(
+                                        () -> {
+                                            var start = System.nanoTime();
+                                            try {
+                                                task.step().run();
+                                            } catch (Throwable throwable) {
+                                                errors.add(new Error(task.name(), throwable));
+                                            }
+                                            timings.add(new Timing(task.name(), System.nanoTime() - start));
+                                        },
+                                        pool));
+            }
+
+            CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new)).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        return new Result(List.copyOf(timings), List.copyOf(errors));
+    }
+
+    /** A loading step. */
+    @FunctionalInterface
+    interface Step {
+        void run() throws Exception;
+    }
+
+    private record Task(String name, Step step, String[] dependencies) {}
+
+    /** How long a step took, in the order steps finished. */
+    record Timing(String name, long nanos) {}
+
+    /** An exception thrown by a step. */
+    record Error(String name, Throwable cause) {}
+
+    record Result(List<Timing> timings, List<Error> errors) {}
+}
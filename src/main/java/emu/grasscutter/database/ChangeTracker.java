@@ -0,0 +1,168 @@
+package emu.grasscutter.database;
+
+import static emu.grasscutter.config.Configuration.DATABASE;
+
+import com.mongodb.client.model.*;
+import dev.morphia.Datastore;
+import dev.morphia.query.experimental.filters.Filters;
+import dev.morphia.query.experimental.updates.*;
+import it.unimi.dsi.fastutil.objects.*;
+import java.util.*;
+import java.util.function.*;
+import java.util.zip.CRC32C;
+import org.bson.*;
+import org.bson.codecs.*;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * Remembers what an entity looked like when it was last written, so later saves only send the
+ * top-level fields which changed as a {@code $set}/{@code $unset} update instead of the whole
+ * document. Only a hash of each field is kept, not the field itself.
+ *
+ * <p>The first save of an entity is always a full save.
+ */
+public final class ChangeTracker {
+    private static final EncoderContext ENCODER_CONTEXT =
+            EncoderContext.builder().isEncodingCollectibleDocument(true).build();
+    private static final BsonDocumentCodec DOCUMENT_CODEC = new BsonDocumentCodec();
+
+    /* The hash of every field as of the last write. Null until the entity has been written. */
+    private Object2LongMap<String> fieldHashes;
+
+    /**
+     * Writes an entity, sending only the fields which changed since the last write.
+     *
+     * @param datastore The datastore the entity belongs to.
+     * @param entity The entity. Must be the object which owns this tracker.
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized void save(Datastore datastore, Object entity) {
+        if (!DATABASE.partialUpdates) {
+            datastore.save(entity);
+            this.fieldHashes = null;
+            return;
+        }
+
+        if (this.fieldHashes == null) {
+            datastore.save(entity);
+            this.fieldHashes = hashFields(encode(datastore, entity));
+            return;
+        }
+
+        var document = encode(datastore, entity);
+        var hashes = hashFields(document);
+
+        var operators = new ArrayList<UpdateOperator>();
+        this.diff(
+                document,
+                hashes,
+                (field, value) -> operators.add(UpdateOperators.set(field, value)),
+                field -> operators.add(UpdateOperators.unset(field)));
+        if (operators.isEmpty()) return;
+
+        var result =
+                datastore
+                        .find((Class<Object>) entity.getClass())
+                        .filter(Filters.eq("_id", datastore.getMapper().getId(entity)))
+                        .update(operators)
+                        .execute();
+        if (result.getMatchedCount() == 0) {
+            // The document is gone; write it again in full.
+            datastore.save(entity);
+        }
+
+        this.fieldHashes = hashes;
+    }
+
+    /**
+     * Prepares the write of an entity for a bulk write, and assumes it will succeed. If it does not,
+     * call {@link #reset()}.
+     *
+     * @param datastore The datastore the entity belongs to.
+     * @param entity The entity. Must be the object which owns this tracker.
+     * @return A replacement on the first write, an update of the changed fields after that, or null
+     *     if nothing changed.
+     */
+    public synchronized WriteModel<BsonDocument> prepare(Datastore datastore, Object entity) {
+        var document = encode(datastore, entity);
+        var filter = new BsonDocument("_id", document.get("_id"));
+
+        if (!DATABASE.partialUpdates || this.fieldHashes == null) {
+            this.fieldHashes = DATABASE.partialUpdates ? hashFields(document) : null;
+            return new ReplaceOneModel<>(filter, document, new ReplaceOptions().upsert(true));
+        }
+
+        var hashes = hashFields(document);
+        var set = new BsonDocument();
+        var unset = new BsonDocument();
+        this.diff(document, hashes, set::append, field -> unset.append(field, new BsonInt32(1)));
+        this.fieldHashes = hashes;
+
+        var update = new BsonDocument();
+        if (!set.isEmpty()) update.append("$set", set);
+        if (!unset.isEmpty()) update.append("$unset", unset);
+        return update.isEmpty() ? null : new UpdateOneModel<>(filter, update);
+    }
+
+    /** Passes every field which changed since the last write to the given consumers. */
+    private void diff(
+            BsonDocument document,
+            Object2LongMap<String> hashes,
+            BiConsumer<String, BsonValue> set,
+            Consumer<String> unset) {
+        for (var entry : Object2LongMaps.fastIterable(hashes)) {
+            var field = entry.getKey();
+            if (!this.fieldHashes.containsKey(field)
+                    || this.fieldHashes.getLong(field) != entry.getLongValue()) {
+                set.accept(field, document.get(field));
+            }
+        }
+        for (var field : this.fieldHashes.keySet()) {
+            if (!hashes.containsKey(field)) {
+                unset.accept(field);
+            }
+        }
+    }
+
+    /** Forgets the last write, so the next save is a full save. */
+    public synchronized void reset() {
+        this.fieldHashes = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    static BsonDocument encode(Datastore datastore, Object entity) {
+        var codec = (Codec<Object>) datastore.getMapper().getCodecRegistry().get(entity.getClass());
+
+        var document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), entity, ENCODER_CONTEXT);
+        return document;
+    }
+
+    /** Hashes the encoded form of every field except the ID. */
+    private static Object2LongMap<String> hashFields(BsonDocument document) {
+        var hashes = new Object2LongOpenHashMap<String>(document.size());
+        var buffer = new BasicOutputBuffer();
+        var crc = new CRC32C();
+
+        for (var entry : document.entrySet()) {
+            if (entry.getKey().equals("_id")) continue;
+
+            buffer.truncateToPosition(0);
+            try (var writer = new BsonBinaryWriter(buffer)) {
+                DOCUMENT_CODEC.encode(
+                        writer, new BsonDocument("v", entry.getValue()), EncoderContext.builder().build());
+            }
+
+            // Two independent 32-bit hashes, so a changed field is practically never missed.
+            var bytes = buffer.getInternalBuffer();
+            var length = buffer.getPosition();
+            crc.reset();
+            crc.update(bytes, 0, length);
+            var hash = 1;
+            for (var i = 0; i < length; i++) hash = 31 * hash + bytes[i];
+
+            hashes.put(entry.getKey(), crc.getValue() << 32 | (hash & 0xFFFFFFFFL));
+        }
+        return hashes;
+    }
+}
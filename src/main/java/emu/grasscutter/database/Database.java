@@ -1,6 +1,7 @@
 package emu.grasscutter.database;
 
 import emu.grasscutter.Grasscutter;
+import emu.grasscutter.server.scheduler.TimerService;
 import emu.grasscutter.utils.objects.DatabaseObject;
 import org.slf4j.*;
 
@@ -13,7 +14,8 @@ import java.util.concurrent.*;
  */
 public interface Database {
     Logger logger = LoggerFactory.getLogger("Database");
-    List<DatabaseObject<?>> objects = new CopyOnWriteArrayList<>();
+    DeferredSaves deferredSaves = new DeferredSaves();
+    SaveStats saveStats = new SaveStats();
 
     /**
      * Queues an object to be saved.
@@ -24,49 +26,70 @@ public interface Database {
         if (object.saveImmediately()) {
             object.save();
         } else {
-            objects.add(object);
+            deferredSaves.add(object);
         }
     }
 
     /**
      * Performs a bulk save of all deferred objects.
+     *
+     * @return A future which completes once all objects are written.
      */
-    static void saveAll() {
-        var size = objects.size();
-        Database.saveAll(objects);
+    static CompletableFuture<Void> saveAll() {
+        var objects = deferredSaves.drain();
+        logger.debug("Performing auto save on {} objects.", objects.size());
 
-        logger.debug("Performed auto save on {} objects.", size);
+        return Database.saveAll(objects);
     }
 
     /**
-     * Performs a bulk save of all deferred objects.
+     * Performs a bulk save of the given objects.
      *
      * @param objects The objects to save.
+     * @return A future which completes once all objects are written.
      */
-    static void saveAll(List<? extends DatabaseObject<?>> objects) {
+    static CompletableFuture<Void> saveAll(List<? extends DatabaseObject<?>> objects) {
         // Sort all objects into their respective databases.
-        var gameObjects = objects.stream()
-                .filter(DatabaseObject::isGameObject)
-                .toList();
-        var accountObjects = objects.stream()
-                .filter(o -> !o.isGameObject())
-                .toList();
+        var sorted = new DeferredSaves.Drained(new ArrayList<>(), new ArrayList<>());
+        objects.forEach(sorted::add);
 
-        // Clear the collective list.
-        objects.clear();
+        return Database.saveAll(sorted);
+    }
+
+    /**
+     * Performs a bulk save of sorted objects, and records it in {@link #saveStats}.
+     *
+     * @param objects The objects to save.
+     * @return A future which completes once all objects are written.
+     */
+    private static CompletableFuture<Void> saveAll(DeferredSaves.Drained objects) {
+        var start = System.nanoTime();
+        var gameObjects = objects.gameObjects();
+        var accountObjects = objects.accountObjects();
 
         // Save all objects.
-        var executor = DatabaseHelper.getEventExecutor();
-        if (Grasscutter.getRunMode() != Grasscutter.ServerRunMode.DISPATCH_ONLY) {
-            executor.submit(() -> {
-                DatabaseManager.getGameDatastore().save(gameObjects);
-            });
+        // Game objects are batched per collection by the write-behind queue.
+        var writes = new ArrayList<CompletableFuture<Void>>();
+        if (!gameObjects.isEmpty() && Grasscutter.getRunMode() != Grasscutter.ServerRunMode.DISPATCH_ONLY) {
+            for (var object : gameObjects) {
+                // One object which can not be saved must not drop the rest of the batch.
+                try {
+                    WriteBehindQueue.save(object);
+                } catch (Exception exception) {
+                    logger.warn("Unable to save {}.", object.getClass().getSimpleName(), exception);
+                }
+            }
+            writes.add(WriteBehindQueue.flush());
         }
-        if (Grasscutter.getRunMode() != Grasscutter.ServerRunMode.GAME_ONLY) {
-            executor.submit(() -> {
-                DatabaseManager.getAccountDatastore().save(accountObjects);
-            });
+        if (!accountObjects.isEmpty() && Grasscutter.getRunMode() != Grasscutter.ServerRunMode.GAME_ONLY) {
+            writes.add(CompletableFuture.runAsync(
+                () -> DatabaseManager.getAccountDatastore().save(accountObjects),
+                DatabaseHelper.getEventExecutor()));
         }
+
+        return CompletableFuture.allOf(writes.toArray(CompletableFuture[]::new))
+            .whenComplete((ignored, throwable) -> saveStats.record(
+                gameObjects.size(), accountObjects.size(), System.nanoTime() - start));
     }
 
     /**
@@ -74,12 +97,7 @@ public interface Database {
      * Runs every 10s 1000为1秒.
      */
     static void startSaveThread() {
-        var timer = new Timer();
-        timer.scheduleAtFixedRate(new TimerTask() {
-            @Override
-            public void run() {
-                Database.saveAll();
-            }
-        }, 0, 1000 * 10);
+        TimerService.scheduleAtFixedRate(
+            Runnable::run, Database::saveAll, 0, 10, TimeUnit.SECONDS);
     }
 }
@@ -4,6 +4,9 @@ import dev.morphia.annotations.*;
 
 @Entity(value = "counters", useDiscriminator = false)
 public class DatabaseCounter {
+    /* The last ID which is considered used when a counter is created. */
+    public static final int INITIAL_COUNT = 10000;
+
     @Id private String id;
     private int count;
 
@@ -11,7 +14,7 @@ public class DatabaseCounter {
 
     public DatabaseCounter(String id) {
         this.id = id;
-        this.count = 10000;
+        this.count = INITIAL_COUNT;
     }
 
     public int getNextId() {
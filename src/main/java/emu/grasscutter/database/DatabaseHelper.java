@@ -20,7 +20,7 @@ import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.quest.GameMainQuest;
 import emu.grasscutter.game.world.SceneGroupInstance;
 import emu.grasscutter.game.world.SceneInstanceData;
-import emu.grasscutter.utils.objects.Returnable;
+import emu.grasscutter.utils.objects.*;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import java.util.List;
 import java.util.concurrent.*;
@@ -55,7 +55,22 @@ public final class DatabaseHelper {
      * @param object The object to save.
      */
     public static void saveGameAsync(Object object) {
-        DatabaseHelper.eventExecutor.submit(() -> DatabaseManager.getGameDatastore().save(object));
+        DatabaseHelper.eventExecutor.submit(() -> DatabaseHelper.saveGame(object));
+    }
+
+    /**
+     * Saves an object on the game datastore, on the calling thread. Objects which track their
+     * changes only have their changed fields written.
+     *
+     * @param object The object to save.
+     */
+    public static void saveGame(Object object) {
+        var datastore = DatabaseManager.getGameDatastore();
+        if (object instanceof ChangeTracked tracked) {
+            tracked.getChangeTracker().save(datastore, object);
+        } else {
+            datastore.save(object);
+        }
     }
 
     /**
@@ -352,7 +367,7 @@ public final class DatabaseHelper {
     }
 
     public static void saveAvatar(Avatar avatar) {
-        DatabaseHelper.saveGameAsync(avatar);
+        WriteBehindQueue.save(avatar);
     }
 
     /**
@@ -370,11 +385,11 @@ public final class DatabaseHelper {
     }
 
     public static void saveItem(GameItem item) {
-        DatabaseHelper.saveGameAsync(item);
+        WriteBehindQueue.save(item);
     }
 
     public static void deleteItem(GameItem item) {
-        DatabaseHelper.asyncOperation(() -> DatabaseManager.getGameDatastore().delete(item));
+        WriteBehindQueue.delete(item);
     }
 
     /**
@@ -7,7 +7,6 @@ import com.mongodb.client.*;
 import dev.morphia.*;
 import dev.morphia.annotations.Entity;
 import dev.morphia.mapping.*;
-import dev.morphia.query.experimental.filters.Filters;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.Grasscutter.ServerRunMode;
 import emu.grasscutter.game.Account;
@@ -91,24 +90,11 @@ public final class DatabaseManager {
         }
     }
 
-    public static synchronized int getNextId(Class<?> c) {
-        DatabaseCounter counter =
-                getGameDatastore()
-                        .find(DatabaseCounter.class)
-                        .filter(Filters.eq("_id", c.getSimpleName()))
-                        .first();
-        if (counter == null) {
-            counter = new DatabaseCounter(c.getSimpleName());
-        }
-
-        try {
-            return counter.getNextId();
-        } finally {
-            DatabaseHelper.saveGameAsync(counter);
-        }
+    public static int getNextId(Class<?> c) {
+        return IdAllocator.next(c.getSimpleName());
     }
 
-    public static synchronized int getNextId(Object o) {
+    public static int getNextId(Object o) {
         return getNextId(o.getClass());
     }
 }
@@ -0,0 +1,76 @@
+package emu.grasscutter.database;
+
+import emu.grasscutter.utils.objects.DatabaseObject;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Objects waiting for the next auto-save. An object saved several times between auto-saves is
+ * only held once. Adding never copies or locks.
+ */
+public final class DeferredSaves {
+    private final Set<Entry> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Adds an object to the next auto-save.
+     *
+     * @param object The object.
+     */
+    public void add(DatabaseObject<?> object) {
+        this.pending.add(new Entry(object));
+    }
+
+    /**
+     * @return The amount of objects waiting.
+     */
+    public int size() {
+        return this.pending.size();
+    }
+
+    /**
+     * Removes every waiting object. Objects added while draining are either included or left for
+     * the next drain, never lost.
+     *
+     * @return The removed objects, sorted by database.
+     */
+    public Drained drain() {
+        var drained = new Drained(new ArrayList<>(), new ArrayList<>());
+
+        var iterator = this.pending.iterator();
+        while (iterator.hasNext()) {
+            var object = iterator.next().object();
+            iterator.remove();
+
+            drained.add(object);
+        }
+
+        return drained;
+    }
+
+    /** Objects removed from the registry, sorted by database. */
+    public record Drained(List<DatabaseObject<?>> gameObjects, List<DatabaseObject<?>> accountObjects) {
+        void add(DatabaseObject<?> object) {
+            (object.isGameObject() ? this.gameObjects : this.accountObjects).add(object);
+        }
+
+        /**
+         * @return The total amount of objects.
+         */
+        public int size() {
+            return this.gameObjects.size() + this.accountObjects.size();
+        }
+    }
+
+    /** Compares objects by identity, since entities may define their own equality. */
+    private record Entry(DatabaseObject<?> object) {
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Entry entry && entry.object == this.object;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this.object);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package emu.grasscutter.database;
+
+import static emu.grasscutter.config.Configuration.DATABASE;
+
+import com.mongodb.*;
+import com.mongodb.client.model.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.Document;
+
+/**
+ * Hands out IDs from {@link DatabaseCounter}s. Each counter leases a block of {@code idBlockSize}
+ * IDs with a single atomic {@code $inc}, then serves them from memory without locking. Every server
+ * sharing the game database leases its own blocks, so IDs never collide between them.
+ *
+ * <p>IDs left in a block when the server stops are skipped.
+ */
+public final class IdAllocator {
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the next ID of a counter.
+     *
+     * @param name The counter's name.
+     * @return A new, unique ID.
+     */
+    public static int next(String name) {
+        return counters.computeIfAbsent(name, Counter::new).next();
+    }
+
+    /** The block of IDs currently leased for one counter. */
+    private static final class Counter {
+        private final String name;
+        /* The next ID in the low half, the end of the block (exclusive) in the high half. */
+        private final AtomicLong block = new AtomicLong();
+
+        Counter(String name) {
+            this.name = name;
+        }
+
+        int next() {
+            while (true) {
+                var block = this.block.getAndIncrement();
+                if ((int) block < (int) (block >>> 32)) {
+                    return (int) block;
+                }
+
+                // The block is used up; lease a new one.
+                synchronized (this) {
+                    block = this.block.get();
+                    if ((int) block >= (int) (block >>> 32)) {
+                        var size = Math.max(DATABASE.idBlockSize, 1);
+                        var last = this.lease(size);
+                        this.block.set((long) (last + 1) << 32 | (last - size + 1));
+                    }
+                }
+            }
+        }
+
+        /**
+         * Leases a block of IDs from the database.
+         *
+         * @return The last ID of the block.
+         */
+        private int lease(int size) {
+            var collection =
+                    DatabaseManager.getGameDatabase()
+                            .getCollection(
+                                    DatabaseManager.getGameDatastore()
+                                            .getMapper()
+                                            .getEntityModel(DatabaseCounter.class)
+                                            .getCollectionName());
+            var options = new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER);
+
+            while (true) {
+                var counter =
+                        collection.findOneAndUpdate(
+                                Filters.eq("_id", this.name), Updates.inc("count", size), options);
+                if (counter != null) {
+                    return ((Number) counter.get("count")).intValue();
+                }
+
+                // Create the counter. If another server created it first, lease from theirs.
+                try {
+                    collection.insertOne(
+                            new Document("_id", this.name).append("count", DatabaseCounter.INITIAL_COUNT));
+                } catch (MongoWriteException exception) {
+                    if (exception.getError().getCategory() != ErrorCategory.DUPLICATE_KEY) {
+                        throw exception;
+                    }
+                }
+            }
+        }
+    }
+}
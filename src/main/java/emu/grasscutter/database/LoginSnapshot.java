@@ -0,0 +1,179 @@
+package emu.grasscutter.database;
+
+import com.mongodb.MongoCommandException;
+import dev.morphia.Datastore;
+import dev.morphia.query.experimental.filters.Filters;
+import emu.grasscutter.game.achievement.Achievements;
+import emu.grasscutter.game.avatar.Avatar;
+import emu.grasscutter.game.battlepass.BattlePassManager;
+import emu.grasscutter.game.friends.Friendship;
+import emu.grasscutter.game.inventory.GameItem;
+import emu.grasscutter.game.mail.Mail;
+import emu.grasscutter.game.player.Player;
+import emu.grasscutter.game.quest.GameMainQuest;
+import java.util.*;
+import java.util.function.*;
+import javax.annotation.Nullable;
+import lombok.Getter;
+import org.bson.*;
+import org.bson.codecs.*;
+import org.bson.conversions.Bson;
+
+/**
+ * Every per-player document needed to log a player in. These are read with a single aggregation,
+ * which {@code $unionWith}s all per-player collections, so a login costs one round trip instead of
+ * one per collection. Documents are streamed as raw BSON and decoded straight into entities with
+ * the mapper's codecs.
+ *
+ * <p>Servers older than MongoDB 4.4 do not support {@code $unionWith}; the collections are then
+ * queried one by one.
+ */
+@Getter
+public final class LoginSnapshot {
+    /* Marks which collection a document of the aggregation came from. Ignored when decoding. */
+    private static final String SOURCE_FIELD = "_loginSource";
+    private static final int UNION_WITH_UNSUPPORTED = 40324;
+
+    private static final List<Source<?>> SOURCES =
+            List.of(
+                    new Source<>(Avatar.class, "ownerId", (s, o) -> s.avatars.add(o)),
+                    new Source<>(GameItem.class, "ownerId", (s, o) -> s.items.add(o)),
+                    new Source<>(Friendship.class, "ownerId", (s, o) -> s.friendships.add(o)),
+                    new Source<>(Mail.class, "ownerUid", (s, o) -> s.mail.add(o)),
+                    new Source<>(GameMainQuest.class, "ownerUid", (s, o) -> s.quests.add(o)),
+                    new Source<>(BattlePassManager.class, "ownerUid", (s, o) -> s.battlePass = o),
+                    new Source<>(Achievements.class, "uid", (s, o) -> s.achievements = o));
+
+    private static volatile boolean unionWithUnsupported = false;
+
+    private final List<Avatar> avatars = new ArrayList<>();
+    private final List<GameItem> items = new ArrayList<>();
+    private final List<Friendship> friendships = new ArrayList<>();
+    private final List<Mail> mail = new ArrayList<>();
+    private final List<GameMainQuest> quests = new ArrayList<>();
+    @Nullable private BattlePassManager battlePass;
+    @Nullable private Achievements achievements;
+
+    /**
+     * Fetches a player's documents, and creates the battle pass and achievements if the player has
+     * none yet.
+     *
+     * @param player The player.
+     * @return The player's documents.
+     */
+    public static LoginSnapshot load(Player player) {
+        var snapshot = LoginSnapshot.fetch(DatabaseManager.getGameDatastore(), player.getUid());
+
+        if (snapshot.battlePass == null) {
+            snapshot.battlePass = new BattlePassManager(player);
+            snapshot.battlePass.save();
+        } else {
+            snapshot.battlePass.setPlayer(player);
+        }
+        if (snapshot.achievements == null) {
+            snapshot.achievements = Achievements.create(player.getUid());
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Fetches a player's documents.
+     *
+     * @param datastore The game datastore.
+     * @param uid The player's UID.
+     * @return The player's documents.
+     */
+    public static LoginSnapshot fetch(Datastore datastore, int uid) {
+        if (!unionWithUnsupported) {
+            try {
+                return LoginSnapshot.fetchUnion(datastore, uid);
+            } catch (MongoCommandException exception) {
+                if (exception.getErrorCode() != UNION_WITH_UNSUPPORTED) throw exception;
+
+                Database.logger.info(
+                        "The database does not support $unionWith; logins will query each collection.");
+                unionWithUnsupported = true;
+            }
+        }
+
+        return LoginSnapshot.fetchSeparately(datastore, uid);
+    }
+
+    /** Fetches a player's documents with one aggregation. */
+    static LoginSnapshot fetchUnion(Datastore datastore, int uid) {
+        var snapshot = new LoginSnapshot();
+        var mapper = datastore.getMapper();
+        var decoders = new HashMap<String, Consumer<RawBsonDocument>>();
+
+        var pipeline = new ArrayList<Bson>();
+        for (var source : SOURCES) {
+            var collection = mapper.getEntityModel(source.type()).getCollectionName();
+            decoders.put(collection, source.decoder(datastore, snapshot));
+
+            var stages =
+                    List.of(
+                            new BsonDocument(
+                                    "$match", new BsonDocument(source.ownerField(), new BsonInt32(uid))),
+                            new BsonDocument(
+                                    "$addFields", new BsonDocument(SOURCE_FIELD, new BsonString(collection))));
+            if (pipeline.isEmpty()) {
+                pipeline.addAll(stages);
+            } else {
+                pipeline.add(
+                        new BsonDocument(
+                                "$unionWith",
+                                new BsonDocument("coll", new BsonString(collection))
+                                        .append("pipeline", new BsonArray(stages))));
+            }
+        }
+
+        var first = mapper.getEntityModel(SOURCES.get(0).type()).getCollectionName();
+        try (var cursor =
+                datastore
+                        .getDatabase()
+                        .getCollection(first, RawBsonDocument.class)
+                        .aggregate(pipeline)
+                        .batchSize(1000)
+                        .cursor()) {
+            while (cursor.hasNext()) {
+                var document = cursor.next();
+                decoders.get(document.getString(SOURCE_FIELD).getValue()).accept(document);
+            }
+        }
+
+        return snapshot;
+    }
+
+    /** Fetches a player's documents with one query per collection. */
+    static LoginSnapshot fetchSeparately(Datastore datastore, int uid) {
+        var snapshot = new LoginSnapshot();
+        for (var source : SOURCES) {
+            source.find(datastore, snapshot, uid);
+        }
+
+        return snapshot;
+    }
+
+    /** A per-player collection. */
+    private record Source<T>(Class<T> type, String ownerField, BiConsumer<LoginSnapshot, T> sink) {
+        /** Creates a decoder which adds documents of this collection to the snapshot. */
+        Consumer<RawBsonDocument> decoder(Datastore datastore, LoginSnapshot snapshot) {
+            var codec = datastore.getMapper().getCodecRegistry().get(this.type);
+            var context = DecoderContext.builder().build();
+
+            return document -> {
+                try (var reader = document.asBsonReader()) {
+                    this.sink.accept(snapshot, codec.decode(reader, context));
+                }
+            };
+        }
+
+        void find(Datastore datastore, LoginSnapshot snapshot, int uid) {
+            try (var cursor =
+                    datastore.find(this.type).filter(Filters.eq(this.ownerField, uid)).iterator()) {
+                cursor.forEachRemaining(entity -> this.sink.accept(snapshot, entity));
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package emu.grasscutter.database;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Information about auto-saves. Written when a save finishes, safe to read from anywhere.
+ *
+ * <p>A save's duration is measured from when it starts until every write has been acknowledged.
+ */
+public final class SaveStats {
+    private volatile long saveCount;
+    private volatile long totalObjects;
+    private volatile int lastGameObjects;
+    private volatile int lastAccountObjects;
+    private volatile long lastSaveNanos;
+    private volatile long maxSaveNanos;
+
+    /**
+     * Records a finished save.
+     *
+     * @param gameObjects The amount of game objects written.
+     * @param accountObjects The amount of account objects written.
+     * @param durationNanos How long the save took.
+     */
+    synchronized void record(int gameObjects, int accountObjects, long durationNanos) {
+        this.saveCount++;
+        this.totalObjects += gameObjects + accountObjects;
+        this.lastGameObjects = gameObjects;
+        this.lastAccountObjects = accountObjects;
+        this.lastSaveNanos = durationNanos;
+        if (durationNanos > this.maxSaveNanos) this.maxSaveNanos = durationNanos;
+    }
+
+    /**
+     * @return The amount of saves since the server started.
+     */
+    public long getSaveCount() {
+        return this.saveCount;
+    }
+
+    /**
+     * @return The amount of objects saved since the server started.
+     */
+    public long getTotalObjects() {
+        return this.totalObjects;
+    }
+
+    /**
+     * @return The amount of game objects in the last save.
+     */
+    public int getLastGameObjects() {
+        return this.lastGameObjects;
+    }
+
+    /**
+     * @return The amount of account objects in the last save.
+     */
+    public int getLastAccountObjects() {
+        return this.lastAccountObjects;
+    }
+
+    /**
+     * @return How long the last save took, in milliseconds.
+     */
+    public double getLastSaveMillis() {
+        return this.lastSaveNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return How long the slowest save took, in milliseconds.
+     */
+    public double getMaxSaveMillis() {
+        return this.maxSaveNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return "saves=%d, objects=%d, last=%d game + %d account in %.1fms, max=%.1fms"
+                .formatted(
+                        this.getSaveCount(),
+                        this.getTotalObjects(),
+                        this.getLastGameObjects(),
+                        this.getLastAccountObjects(),
+                        this.getLastSaveMillis(),
+                        this.getMaxSaveMillis());
+    }
+}
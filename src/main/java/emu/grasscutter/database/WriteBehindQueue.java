@@ -0,0 +1,298 @@
+package emu.grasscutter.database;
+
+import static emu.grasscutter.config.Configuration.DATABASE;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.*;
+import dev.morphia.Datastore;
+import emu.grasscutter.server.scheduler.TimerService;
+import emu.grasscutter.utils.objects.ChangeTracked;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bson.BsonDocument;
+import org.bson.types.ObjectId;
+
+/**
+ * Delays writes of game objects so repeated saves of the same object are merged into one, then
+ * writes each collection with unordered bulk writes. A collection is written once it has {@code
+ * writeBehindBatchSize} pending objects, or {@code writeBehindInterval} milliseconds after the first
+ * pending save.
+ *
+ * <p>Objects are encoded when they are written, so the latest state is always stored.
+ */
+public final class WriteBehindQueue {
+    private static final Map<Class<?>, Pending> pending = new ConcurrentHashMap<>();
+    /* Failed writes are retried after a delay which doubles with each failure, up to this. */
+    private static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * Queues an object to be saved. Objects without an ID which can not be generated here are saved
+     * on their own instead, so the datastore assigns one.
+     *
+     * @param object The object to save.
+     */
+    public static void save(Object object) {
+        var id = getOrCreateId(object);
+        if (id == null) {
+            DatabaseHelper.saveGameAsync(object);
+            return;
+        }
+
+        WriteBehindQueue.getPending(object.getClass()).put(id, object);
+    }
+
+    /**
+     * Queues an object to be deleted. Replaces any pending save of the object.
+     *
+     * @param object The object to delete.
+     */
+    public static void delete(Object object) {
+        var id = DatabaseManager.getGameDatastore().getMapper().getId(object);
+        if (id == null) return; // It was never written.
+
+        WriteBehindQueue.getPending(object.getClass()).put(id, new Deletion(object));
+    }
+
+    /**
+     * Writes every pending object on the database executor.
+     *
+     * @return A future which completes once the writes are done.
+     */
+    public static CompletableFuture<Void> flush() {
+        return CompletableFuture.allOf(
+                pending.values().stream().map(Pending::submit).toArray(CompletableFuture[]::new));
+    }
+
+    /** Writes every pending object on the calling thread. */
+    public static void flushNow() {
+        pending.values().forEach(Pending::flush);
+    }
+
+    /**
+     * @return The amount of objects waiting to be written.
+     */
+    public static int getPendingCount() {
+        var count = 0;
+        for (var collection : pending.values()) {
+            count += collection.writes.size();
+        }
+        return count;
+    }
+
+    private static Pending getPending(Class<?> type) {
+        return pending.computeIfAbsent(type, Pending::new);
+    }
+
+    /**
+     * Gets the ID of an object, generating one if it has not been written before.
+     *
+     * @return The ID, or null if the object has none and its ID type can not be generated.
+     */
+    private static Object getOrCreateId(Object object) {
+        var mapper = DatabaseManager.getGameDatastore().getMapper();
+        var id = mapper.getId(object);
+        if (id != null) return id;
+
+        var property = mapper.findIdProperty(object.getClass());
+        if (property.getType() == ObjectId.class) {
+            id = new ObjectId();
+        } else if (property.getType() == String.class) {
+            id = new ObjectId().toHexString();
+        } else {
+            return null;
+        }
+
+        property.setValue(object, id);
+        return id;
+    }
+
+    /** Marks an object to be deleted. */
+    private record Deletion(Object object) {}
+
+    /** The pending writes of one collection. */
+    private static final class Pending {
+        private final Class<?> type;
+        private final Map<Object, Object> writes = new ConcurrentHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile int failures;
+
+        Pending(Class<?> type) {
+            this.type = type;
+        }
+
+        void put(Object id, Object write) {
+            this.writes.put(id, write);
+
+            if (DATABASE.writeBehindInterval <= 0
+                    || this.writes.size() >= DATABASE.writeBehindBatchSize) {
+                this.submit();
+            } else {
+                this.schedule(DATABASE.writeBehindInterval);
+            }
+        }
+
+        /** Flushes after the delay, unless a flush is already scheduled. */
+        private void schedule(long delay) {
+            if (this.scheduled.compareAndSet(false, true)) {
+                TimerService.schedule(
+                        DatabaseHelper.getEventExecutor(), this::flush, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        CompletableFuture<Void> submit() {
+            try {
+                return CompletableFuture.runAsync(this::flush, DatabaseHelper.getEventExecutor());
+            } catch (RejectedExecutionException ignored) {
+                // The server is shutting down, and will flush on its own.
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+
+        /* Flushes of one collection never overlap, so writes of an object stay in order. */
+        synchronized void flush() {
+            this.scheduled.set(false);
+            if (this.writes.isEmpty()) return;
+
+            var datastore = DatabaseManager.getGameDatastore();
+            var collection =
+                    datastore.getMapper().getCollection(this.type).withDocumentClass(BsonDocument.class);
+            var batchSize = Math.max(DATABASE.writeBehindBatchSize, 1);
+
+            var ids = new ArrayList<>();
+            var entries = new ArrayList<>();
+            var models = new ArrayList<WriteModel<BsonDocument>>();
+            // Writes queued again by a failure wait for the next flush.
+            for (var id : new ArrayList<>(this.writes.keySet())) {
+                var write = this.writes.remove(id);
+                if (write == null) continue;
+
+                WriteModel<BsonDocument> model;
+                try {
+                    model = this.toModel(datastore, id, write);
+                } catch (Exception exception) {
+                    // Retrying would fail the same way. The next save of the object is a full save.
+                    Database.logger.warn("Unable to encode {} {}.", this.type.getSimpleName(), id, exception);
+                    Pending.reset(write);
+                    continue;
+                }
+                if (model == null) continue;
+
+                ids.add(id);
+                entries.add(write);
+                models.add(model);
+
+                if (models.size() >= batchSize) {
+                    this.write(collection, ids, entries, models);
+                    ids.clear();
+                    entries.clear();
+                    models.clear();
+                }
+            }
+            if (!models.isEmpty()) this.write(collection, ids, entries, models);
+        }
+
+        private WriteModel<BsonDocument> toModel(Datastore datastore, Object id, Object write) {
+            if (write instanceof Deletion deletion) {
+                if (deletion.object() instanceof ChangeTracked tracked) {
+                    tracked.getChangeTracker().reset();
+                }
+                return new DeleteOneModel<>(Filters.eq("_id", id));
+            } else if (write instanceof ChangeTracked tracked) {
+                return tracked.getChangeTracker().prepare(datastore, write);
+            } else {
+                return new ReplaceOneModel<>(
+                        Filters.eq("_id", id),
+                        ChangeTracker.encode(datastore, write),
+                        new ReplaceOptions().upsert(true));
+            }
+        }
+
+        private void write(
+                MongoCollection<BsonDocument> collection,
+                List<Object> ids,
+                List<Object> entries,
+                List<WriteModel<BsonDocument>> models) {
+            try {
+                var result = collection.bulkWrite(models, new BulkWriteOptions().ordered(false));
+                this.failures = 0;
+                this.checkUpdates(result, ids, entries, models, Set.of());
+            } catch (MongoBulkWriteException exception) {
+                Database.logger.warn(
+                        "{} of {} writes to {} failed.",
+                        exception.getWriteErrors().size(),
+                        models.size(),
+                        this.type.getSimpleName(),
+                        exception);
+                var failed = new HashSet<Integer>();
+                for (var error : exception.getWriteErrors()) {
+                    failed.add(error.getIndex());
+                    this.retry(ids.get(error.getIndex()), entries.get(error.getIndex()));
+                }
+                this.checkUpdates(exception.getWriteResult(), ids, entries, models, failed);
+            } catch (Exception exception) {
+                Database.logger.warn("Unable to write to {}.", this.type.getSimpleName(), exception);
+                for (var i = 0; i < ids.size(); i++) {
+                    this.retry(ids.get(i), entries.get(i));
+                }
+            }
+        }
+
+        /**
+         * Partial updates of documents which no longer exist match nothing. If fewer updates matched
+         * than were sent, the updated objects are queued again as full saves.
+         */
+        private void checkUpdates(
+                BulkWriteResult result,
+                List<Object> ids,
+                List<Object> entries,
+                List<WriteModel<BsonDocument>> models,
+                Set<Integer> failed) {
+            var updates = 0;
+            var replacements = 0;
+            for (var i = 0; i < models.size(); i++) {
+                if (failed.contains(i)) continue;
+                if (models.get(i) instanceof UpdateOneModel) updates++;
+                else if (models.get(i) instanceof ReplaceOneModel) replacements++;
+            }
+            if (updates == 0) return;
+
+            // Replacements which did not insert a document matched one.
+            var matchedUpdates = result.getMatchedCount() - (replacements - result.getUpserts().size());
+            if (matchedUpdates >= updates) return;
+
+            Database.logger.warn(
+                    "{} of {} updates to {} matched no document, saving them in full.",
+                    updates - matchedUpdates,
+                    updates,
+                    this.type.getSimpleName());
+            for (var i = 0; i < models.size(); i++) {
+                if (!failed.contains(i) && models.get(i) instanceof UpdateOneModel) {
+                    this.retry(ids.get(i), entries.get(i));
+                }
+            }
+        }
+
+        /**
+         * Queues a failed write again as a full save, unless a newer write is already pending, and
+         * flushes again after a backoff.
+         */
+        private void retry(Object id, Object write) {
+            Pending.reset(write);
+            this.writes.putIfAbsent(id, write);
+
+            var failures = this.failures++;
+            var base = Math.max(DATABASE.writeBehindInterval, 1000L);
+            this.schedule(Math.min(base << Math.min(failures, 16), MAX_RETRY_DELAY));
+        }
+
+        /** Makes the next write of a change-tracked object a full save. */
+        private static void reset(Object write) {
+            if (write instanceof ChangeTracked tracked) {
+                tracked.getChangeTracker().reset();
+            }
+        }
+    }
+}
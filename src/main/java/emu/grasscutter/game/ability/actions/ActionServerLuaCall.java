@@ -5,7 +5,7 @@ import emu.grasscutter.Grasscutter;
 import emu.grasscutter.data.binout.AbilityModifier.AbilityModifierAction;
 import emu.grasscutter.game.ability.Ability;
 import emu.grasscutter.game.entity.GameEntity;
-import emu.grasscutter.scripts.ScriptLoader;
+import emu.grasscutter.scripts.ScriptLib;
 import javax.script.Bindings;
 import org.luaj.vm2.LuaFunction;
 import org.luaj.vm2.LuaValue;
@@ -20,11 +20,6 @@ public final class ActionServerLuaCall extends AbilityActionHandler {
 
         var functionName = action.funcName;
 
-        // Set the script library's manager.
-        var scriptLib = ScriptLoader.getScriptLib();
-        scriptLib.setCurrentEntity(target);
-        scriptLib.setSceneScriptManager(scriptManager);
-
         // Attempt to call the function.
         return switch (action.luaCallType) {
             default -> false;
@@ -32,21 +27,17 @@ public final class ActionServerLuaCall extends AbilityActionHandler {
                 var groupId = target.getGroupId();
                 var group = scriptManager.getGroupById(groupId);
                 var script = group.getBindings();
+                var context = new ScriptLib(scriptManager, group, null, target);
 
-                // Set the script library's group.
-                scriptLib.setCurrentGroup(group);
-
-                yield ActionServerLuaCall.callFunction(script, functionName, ability, action);
+                yield ActionServerLuaCall.callFunction(script, functionName, context, ability, action);
             }
             case SpecificGroup -> {
                 var groupId = action.callParamList[0];
                 var group = scriptManager.getGroupById(groupId);
                 var script = group.getBindings();
+                var context = new ScriptLib(scriptManager, group, null, target);
 
-                // Set the script library's group.
-                scriptLib.setCurrentGroup(group);
-
-                yield ActionServerLuaCall.callFunction(script, functionName, ability, action);
+                yield ActionServerLuaCall.callFunction(script, functionName, context, ability, action);
             }
             case Gadget -> {
                 var controller = target.getEntityController();
@@ -65,12 +56,13 @@ public final class ActionServerLuaCall extends AbilityActionHandler {
      *
      * @param bindings The bindings to fetch the function from.
      * @param functionName The name of the function to call.
+     * @param context The script call's context.
      * @param ability The ability data.
      * @param action The ability action data.
      * @return Whether the function was called successfully.
      */
     private static boolean callFunction(
-        Bindings bindings, String functionName,
+        Bindings bindings, String functionName, ScriptLib context,
         Ability ability, AbilityModifierAction action
     ) {
         try {
@@ -89,7 +81,7 @@ public final class ActionServerLuaCall extends AbilityActionHandler {
                 case 1 -> luaFunction.invoke(new LuaValue[] { lParam1 });
                 case 2 -> luaFunction.invoke(new LuaValue[] { lParam1, lParam2 });
                 case 3 -> luaFunction.invoke(new LuaValue[] { lParam1, lParam2, lParam3 });
-                default -> luaFunction.invoke(new LuaValue[] { ScriptLoader.getScriptLibLua() });
+                default -> luaFunction.invoke(new LuaValue[] { context.toLua() });
             }
 
             return true;
@@ -14,9 +14,10 @@ import emu.grasscutter.data.excels.avatar.*;
 import emu.grasscutter.data.excels.avatar.AvatarSkillDepotData.InherentProudSkillOpens;
 import emu.grasscutter.data.excels.reliquary.*;
 import emu.grasscutter.data.excels.trial.TrialAvatarTemplateData;
+import emu.grasscutter.database.ChangeTracker;
 import emu.grasscutter.data.excels.weapon.*;
 //import emu.grasscutter.database.DatabaseHelper;
-import emu.grasscutter.utils.objects.DatabaseObject;
+import emu.grasscutter.utils.objects.*;
 import emu.grasscutter.game.entity.*;
 import emu.grasscutter.game.inventory.*;
 import emu.grasscutter.game.player.Player;
@@ -41,13 +42,14 @@ import lombok.*;
 import org.bson.types.ObjectId;
 
 @Entity(value = "avatars", useDiscriminator = false)
-public class Avatar implements DatabaseObject<Avatar> {
+public class Avatar implements DatabaseObject<Avatar>, ChangeTracked {
     @Transient @Getter private final Int2ObjectMap<GameItem> equips;
     @Transient @Getter private final Int2FloatOpenHashMap fightProperties;
     @Transient @Getter private final Int2FloatOpenHashMap fightPropOverrides;
     @Id private ObjectId id;
     @Indexed @Getter private int ownerId; // Id of player that this avatar belongs to
     @Transient private Player owner;
+    @Transient @Getter private final ChangeTracker changeTracker = new ChangeTracker();
     @Transient @Getter private AvatarData avatarData;
     @Nullable @Transient @Getter private AvatarSkillDepotData skillDepot;
     @Transient @Getter private long guid; // Player unique id
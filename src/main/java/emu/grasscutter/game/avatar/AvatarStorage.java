@@ -155,7 +155,16 @@ public class AvatarStorage extends BasePlayerManager implements Iterable<Avatar>
     public void loadFromDatabase() {
         if (this.isLoaded()) return;
 
-        List<Avatar> avatars = DatabaseHelper.getAvatars(getPlayer());
+        this.loadFromDatabase(DatabaseHelper.getAvatars(getPlayer()));
+    }
+
+    /**
+     * Adds avatars which were fetched from the database.
+     *
+     * @param avatars The player's avatars.
+     */
+    public void loadFromDatabase(List<Avatar> avatars) {
+        if (this.isLoaded()) return;
 
         for (Avatar avatar : avatars) {
             // Should never happen
@@ -186,7 +195,7 @@ public class AvatarStorage extends BasePlayerManager implements Iterable<Avatar>
             if ((avatar.getAvatarId() == 10000007) || (avatar.getAvatarId() == 10000005)) {
                 avatar.setSkillDepot(skillDepot);
                 avatar.setSkillDepotData(skillDepot);
-                avatar.save(true);
+                DatabaseHelper.saveAvatar(avatar);
             }
         }
 
@@ -226,10 +226,10 @@ public class EntityMonster extends GameEntity {
     public void onTick(int sceneTime) {
         super.onTick(sceneTime);
 
-        // Lua event
+        // Lua event, run with the scene's other monsters at the end of the tick
         getScene()
                 .getScriptManager()
-                .callEvent(
+                .queueEvent(
                         new ScriptArgs(
                                 this.getGroupId(), EventType.EVENT_ANY_MONSTER_LIVE, this.getConfigId()));
     }
@@ -40,11 +40,15 @@ public class EntityRegion extends GameEntity {
     }
 
     public void addEntity(GameEntity entity) {
-        if (this.getEntities().contains(entity.getId())) {
+        this.addEntity(entity.getId());
+    }
+
+    public void addEntity(int entityId) {
+        if (this.getEntities().contains(entityId)) {
             return;
         }
 
-        this.getEntities().add(entity.getId());
+        this.getEntities().add(entityId);
         this.entityEnter = true;
     }
 
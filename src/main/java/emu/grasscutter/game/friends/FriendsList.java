@@ -196,7 +196,19 @@ public class FriendsList extends BasePlayerManager {
         }
 
         // Get friendships from the db
-        List<Friendship> friendships = DatabaseHelper.getFriends(player);
+        this.loadFromDatabase(DatabaseHelper.getFriends(player));
+    }
+
+    /**
+     * Adds friendships which were fetched from the database.
+     *
+     * @param friendships The player's friendships.
+     */
+    public synchronized void loadFromDatabase(List<Friendship> friendships) {
+        if (this.hasLoaded()) {
+            return;
+        }
+
         friendships.forEach(this::loadFriendFromDatabase);
 
         // Set loaded flag
@@ -5,7 +5,7 @@ import emu.grasscutter.data.*;
 import emu.grasscutter.data.common.ItemParamData;
 import emu.grasscutter.data.excels.ItemData;
 import emu.grasscutter.data.excels.reliquary.*;
-import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.database.*;
 import emu.grasscutter.game.entity.EntityWeapon;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.game.props.FightProperty;
@@ -20,14 +20,14 @@ import emu.grasscutter.net.proto.ReliquaryOuterClass.Reliquary;
 import emu.grasscutter.net.proto.SceneReliquaryInfoOuterClass.SceneReliquaryInfo;
 import emu.grasscutter.net.proto.SceneWeaponInfoOuterClass.SceneWeaponInfo;
 import emu.grasscutter.net.proto.WeaponOuterClass.Weapon;
-import emu.grasscutter.utils.objects.WeightedList;
+import emu.grasscutter.utils.objects.*;
 
 import java.util.*;
 import lombok.*;
 import org.bson.types.ObjectId;
 
 @Entity(value = "items", useDiscriminator = false)
-public class GameItem {
+public class GameItem implements ChangeTracked {
     @Id private ObjectId id;
     @Indexed private int ownerId;
     @Getter @Setter private int itemId;
@@ -55,6 +55,7 @@ public class GameItem {
     @Getter @Setter private int equipCharacter;
     @Transient @Getter @Setter private EntityWeapon weaponEntity;
     @Transient @Getter private boolean newItem = false;
+    @Transient @Getter private final ChangeTracker changeTracker = new ChangeTracker();
 
     public GameItem() {
         // Morphia only
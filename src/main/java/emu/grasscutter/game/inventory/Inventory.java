@@ -13,7 +13,6 @@ import emu.grasscutter.game.quest.enums.QuestContent;
 import emu.grasscutter.net.proto.ItemParamOuterClass.ItemParam;
 import emu.grasscutter.server.event.player.PlayerObtainItemEvent;
 import emu.grasscutter.server.packet.send.*;
-import emu.grasscutter.utils.Utils;
 import it.unimi.dsi.fastutil.ints.*;
 import it.unimi.dsi.fastutil.longs.*;
 import lombok.val;
@@ -647,10 +646,16 @@ public class Inventory extends BasePlayerManager implements Iterable<GameItem> {
     public void loadFromDatabase() {
         if (this.isLoaded()) return;
 
-        // Wait for avatars to load.
-        Utils.waitFor(this.getPlayer().getAvatars()::isLoaded);
+        this.loadFromDatabase(DatabaseHelper.getInventoryItems(getPlayer()));
+    }
 
-        List<GameItem> items = DatabaseHelper.getInventoryItems(getPlayer());
+    /**
+     * Adds items which were fetched from the database. The player's avatars must be loaded first.
+     *
+     * @param items The player's items.
+     */
+    public void loadFromDatabase(List<GameItem> items) {
+        if (this.isLoaded()) return;
 
         for (GameItem item : items) {
             // Should never happen
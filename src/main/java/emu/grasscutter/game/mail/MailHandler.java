@@ -98,8 +98,15 @@ public class MailHandler extends BasePlayerManager {
     }
 
     public void loadFromDatabase() {
-        List<Mail> mailList = DatabaseHelper.getAllMail(this.getPlayer());
+        this.loadFromDatabase(DatabaseHelper.getAllMail(this.getPlayer()));
+    }
 
+    /**
+     * Adds mail which was fetched from the database.
+     *
+     * @param mailList The player's mail.
+     */
+    public void loadFromDatabase(List<Mail> mailList) {
         for (Mail mail : mailList) {
             this.getMail().add(mail);
         }
@@ -13,7 +13,9 @@ import emu.grasscutter.net.proto.ChangeHpReasonOuterClass.ChangeHpReason;
 import emu.grasscutter.net.proto.PropChangeReasonOuterClass.PropChangeReason;
 import emu.grasscutter.server.event.player.PlayerLevelStatueEvent;
 import emu.grasscutter.server.packet.send.*;
+import emu.grasscutter.server.scheduler.TimerService;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 // Statue of the Seven Manager
 public class SotSManager extends BasePlayerManager {
@@ -24,7 +26,7 @@ public class SotSManager extends BasePlayerManager {
             PlayerProperty.PROP_MAX_SPRING_VOLUME.getMax();
     private final Logger logger = Grasscutter.getLogger();
     private final boolean enablePriorityHealing = false;
-    private Timer autoRecoverTimer;
+    private TimerService.Handle autoRecoverTimer;
 
     public SotSManager(Player player) {
         super(player);
@@ -80,8 +82,13 @@ public class SotSManager extends BasePlayerManager {
         logger.trace("Player entered statue region");
         autoRevive();
         if (autoRecoverTimer == null) {
-            autoRecoverTimer = new Timer();
-            autoRecoverTimer.schedule(new AutoRecoverTimerTick(), 2500, 15000);
+            autoRecoverTimer =
+                    TimerService.scheduleAtFixedRate(
+                            player.getLogicExecutor(),
+                            new AutoRecoverTimerTick(),
+                            2500,
+                            15000,
+                            TimeUnit.MILLISECONDS);
         }
     }
 
@@ -175,7 +182,7 @@ public class SotSManager extends BasePlayerManager {
         }
     }
 
-    private class AutoRecoverTimerTick extends TimerTask {
+    private class AutoRecoverTimerTick implements Runnable {
         // autoRecover checks player setting to see if auto recover is enabled, and refill HP to the
         // predefined level.
         public void run() {
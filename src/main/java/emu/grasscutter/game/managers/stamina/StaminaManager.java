@@ -14,9 +14,11 @@ import emu.grasscutter.net.proto.VectorOuterClass.Vector;
 import emu.grasscutter.net.proto.VehicleInteractTypeOuterClass.VehicleInteractType;
 import emu.grasscutter.server.game.GameSession;
 import emu.grasscutter.server.packet.send.*;
+import emu.grasscutter.server.scheduler.TimerService;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
 
@@ -140,7 +142,7 @@ public class StaminaManager extends BasePlayerManager {
     private Position previousCoordinates = new Position(0, 0, 0);
     private MotionState currentState = MotionState.MOTION_STATE_STANDBY;
     private MotionState previousState = MotionState.MOTION_STATE_STANDBY;
-    private Timer sustainedStaminaHandlerTimer;
+    private TimerService.Handle sustainedStaminaHandlerTimer;
     private GameSession cachedSession = null;
     private GameEntity cachedEntity = null;
     public int staminaRecoverDelay = 0;
@@ -333,8 +335,13 @@ public class StaminaManager extends BasePlayerManager {
 
     public void startSustainedStaminaHandler() {
         if (!player.isPaused() && sustainedStaminaHandlerTimer == null) {
-            sustainedStaminaHandlerTimer = new Timer();
-            sustainedStaminaHandlerTimer.scheduleAtFixedRate(new SustainedStaminaHandler(), 0, 200);
+            sustainedStaminaHandlerTimer =
+                    TimerService.scheduleAtFixedRate(
+                            player.getLogicExecutor(),
+                            new SustainedStaminaHandler(),
+                            0,
+                            200,
+                            TimeUnit.MILLISECONDS);
             logger.trace("[MovementManager] SustainedStaminaHandlerTimer started");
         }
     }
@@ -451,7 +458,7 @@ public class StaminaManager extends BasePlayerManager {
         updateStaminaRelative(session, consumption, true);
     }
 
-    private class SustainedStaminaHandler extends TimerTask {
+    private class SustainedStaminaHandler implements Runnable {
         public void run() {
             boolean moving = isPlayerMoving();
             int currentCharacterStamina = getCurrentCharacterStamina();
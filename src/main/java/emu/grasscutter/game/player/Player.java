@@ -5,7 +5,7 @@ import emu.grasscutter.*;
 import emu.grasscutter.data.GameData;
 import emu.grasscutter.data.excels.PlayerLevelData;
 import emu.grasscutter.data.excels.world.WeatherData;
-import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.database.*;
 import emu.grasscutter.game.*;
 import emu.grasscutter.game.ability.AbilityManager;
 import emu.grasscutter.game.achievement.Achievements;
@@ -71,12 +71,13 @@ import java.util.concurrent.*;
 import static emu.grasscutter.config.Configuration.GAME_OPTIONS;
 
 @Entity(value = "players", useDiscriminator = false)
-public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
+public class Player implements DatabaseObject<Player>, ChangeTracked, PlayerHook, FieldFetch {
     @Id private int id;
     @Indexed(options = @IndexOptions(unique = true))
     @Getter private String accountId;
     @Setter private transient Account account;
     @Getter @Setter private transient GameSession session;
+    @Getter private final transient ChangeTracker changeTracker = new ChangeTracker();
     @Transient private String sessionKey;
 
     @Getter private String nickname;
@@ -1099,6 +1100,15 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
         this.getSession().send(packet);
     }
 
+    /**
+     * @return The executor this player's packets are handled on. Runs tasks directly when the
+     *     player has no session.
+     */
+    public Executor getLogicExecutor() {
+        var session = this.getSession();
+        return session != null ? session.getLogicExecutor() : Runnable::run;
+    }
+
     public OnlinePlayerInfo getOnlinePlayerInfo() {
         OnlinePlayerInfo.Builder onlineInfo = OnlinePlayerInfo.newBuilder()
             .setUid(this.getUid())
@@ -1231,7 +1241,17 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
 
     public void loadBattlePassManager() {
         if (this.battlePassManager != null) return;
-        this.battlePassManager = DatabaseHelper.loadBattlePass(this);
+        this.loadBattlePassManager(DatabaseHelper.loadBattlePass(this));
+    }
+
+    /**
+     * Sets the battle pass which was fetched from the database.
+     *
+     * @param manager The player's battle pass.
+     */
+    public void loadBattlePassManager(BattlePassManager manager) {
+        if (this.battlePassManager != null) return;
+        this.battlePassManager = manager;
         this.battlePassManager.getMissions().values().removeIf(mission -> mission.getData() == null);
     }
 
@@ -1399,7 +1419,13 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
     }
 
     // Called from tokenrsp
-    public void loadFromDatabase() {
+    /**
+     * Loads the player's data from the database. Queries run on the database executor, and their
+     * results are applied on this player's logic executor, so the calling thread never waits.
+     *
+     * @return A future which completes on the logic executor once everything is loaded.
+     */
+    public CompletableFuture<Void> loadFromDatabase() {
         // Make sure these exist
         if (this.getTeamManager() == null) {
             this.teamManager = new TeamManager(this);
@@ -1412,24 +1438,31 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
         }
 
         // Load from db
-        var runner = Grasscutter.getThreadPool();
-        runner.submit(() -> this.achievements = Achievements.getByPlayer(this));
-
-        runner.submit(this.getAvatars()::loadFromDatabase);
-        runner.submit(this.getInventory()::loadFromDatabase);
+        var executor = this.getLogicExecutor();
 
-        runner.submit(this.getFriendsList()::loadFromDatabase);
-        runner.submit(this.getMailHandler()::loadFromDatabase);
-        runner.submit(this.getQuestManager()::loadFromDatabase);
+        // All documents are read in one round trip.
+        var snapshot = DatabaseHelper.fetchAsync(() -> LoginSnapshot.load(this));
 
-        runner.submit(this::loadBattlePassManager);
+        // Avatars must be added before the inventory, which equips items onto them.
+        var inventory = snapshot.thenAcceptAsync(data -> {
+            this.getAvatars().loadFromDatabase(data.getAvatars());
+            this.getInventory().loadFromDatabase(data.getItems());
+        }, executor);
 
-        // Wait for all tasks to finish.
-        Utils.waitFor(() ->
-            this.getAvatars().isLoaded() &&
-                this.getInventory().isLoaded());
+        var achievements = snapshot.thenAcceptAsync(data -> {
+            if (this.achievements == null) this.achievements = data.getAchievements();
+        }, executor);
+        var friends = snapshot.thenAcceptAsync(data ->
+            this.getFriendsList().loadFromDatabase(data.getFriendships()), executor);
+        var mail = snapshot.thenAcceptAsync(data ->
+            this.getMailHandler().loadFromDatabase(data.getMail()), executor);
+        var quests = snapshot.thenAcceptAsync(data ->
+            this.getQuestManager().loadFromDatabase(data.getQuests()), executor);
+        var battlePass = snapshot.thenAcceptAsync(data ->
+            this.loadBattlePassManager(data.getBattlePass()), executor);
 
-        this.getPlayerProgress().setPlayer(this); // Add reference to the player.
+        return CompletableFuture.allOf(inventory, achievements, friends, mail, quests, battlePass)
+            .thenRunAsync(() -> this.getPlayerProgress().setPlayer(this), executor); // Add reference to the player.
     }
 
     /**
@@ -1575,6 +1608,7 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
             this.save(true);
             this.getTeamManager().saveAvatars();
             this.getFriendsList().save();
+            WriteBehindQueue.flush();
 
             // Call quit event.
             new PlayerQuitEvent(this).call();
@@ -1589,7 +1623,7 @@ public class Player implements DatabaseObject<Player>, PlayerHook, FieldFetch {
         // Remove from server.
         //Note: DON'T DELETE BY UID,BECAUSE THERE ARE MULTIPLE SAME UID PLAYERS WHEN DUPLICATED LOGIN!
         //so I decide to delete by object rather than uid
-        getServer().getPlayers().values().removeIf(player1 -> player1 == this);
+        getServer().deregisterPlayer(this);
     }
 
     public void unfreezeUnlockedScenePoints(int sceneId) {
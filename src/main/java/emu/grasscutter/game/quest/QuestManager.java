@@ -627,8 +627,15 @@ public final class QuestManager extends BasePlayerManager {
     }
 
     public void loadFromDatabase() {
-        List<GameMainQuest> quests = DatabaseHelper.getAllQuests(getPlayer());
+        this.loadFromDatabase(DatabaseHelper.getAllQuests(getPlayer()));
+    }
 
+    /**
+     * Adds quests which were fetched from the database.
+     *
+     * @param quests The player's main quests.
+     */
+    public void loadFromDatabase(List<GameMainQuest> quests) {
         for (GameMainQuest mainQuest : quests) {
             boolean cancelAdd = false;
             mainQuest.setOwner(this.getPlayer());
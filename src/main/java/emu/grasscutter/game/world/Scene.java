@@ -361,7 +361,7 @@ public class Scene {
     }
 
     public void interactByTouch(Player player, Position position) {
-        this.scriptManager.eventExecutor.submit(() -> this.entities.values().stream()
+        this.scriptManager.submitTask(() -> this.entities.values().stream()
             .filter(e -> e.getPosition().sqDist(position) < 3f)
             .filter(e -> e instanceof EntityGadget gadget && gadget.isInteractEnabled() && gadget.getContent() != null && gadget.getContent() instanceof GadgetObject)
             .forEach(e -> ((EntityGadget) e).onInteract(player, null)));
@@ -602,13 +602,6 @@ public class Scene {
             this.checkSpawns();
         }
 
-        // Triggers
-        this.scriptManager.checkRegions();
-
-        if (challenge != null) {
-            challenge.onCheckTimeOut();
-        }
-
         var sceneTime = getSceneTimeSeconds();
 
         var entities = Map.copyOf(this.getEntities());
@@ -618,6 +611,7 @@ public class Scene {
                         this.getEntities().remove(eid);
                     } else e.onTick(sceneTime);
                 });
+        this.getScriptManager().flushQueuedEvents();
 
         blossomManager.onTick();
 
@@ -640,6 +634,26 @@ public class Scene {
 
     }
 
+    /**
+     * Invoked every fast tick, several times per second. Only handles checks which need to react
+     * quickly; everything else belongs in {@link #onTick()}.
+     */
+    public void onFastTick() {
+        // Disable ticking for the player's home world.
+        if (this.getSceneType() == SceneType.SCENE_HOME_WORLD
+                || this.getSceneType() == SceneType.SCENE_HOME_ROOM) {
+            return;
+        }
+
+        // Triggers
+        this.scriptManager.checkRegions();
+
+        var challenge = this.challenge;
+        if (challenge != null) {
+            challenge.onCheckTimeOut();
+        }
+    }
+
     /** Validates a player's current position. Teleports the player if the player is out of bounds. */
     protected void checkPlayerRespawn() {
         if (this.getScriptManager().getConfig() == null) return;
@@ -1209,7 +1223,14 @@ public class Scene {
 
     // Broadcasting
 
+    /**
+     * Sends a packet to every player in the scene. The body is serialized once and shared; each
+     * session only encodes its own header and applies its own key.
+     *
+     * @param packet The packet to send.
+     */
     public void broadcastPacket(BasePacket packet) {
+        if (this.getPlayerCount() > 1) packet.getData(); // Serialize the body once for everyone.
         // Send to all players - might have to check if player has been sent data packets
         for (Player player : this.getPlayers()) {
             player.getSession().send(packet);
@@ -1221,6 +1242,7 @@ public class Scene {
         if (this.getPlayerCount() == 1 && this.getPlayers().get(0) == excludedPlayer) {
             return;
         }
+        if (this.getPlayerCount() > 2) packet.getData(); // Serialize the body once for everyone.
         // Send to all players - might have to check if player has been sent data packets
         for (Player player : this.getPlayers()) {
             if (player == excludedPlayer) {
@@ -562,6 +562,7 @@ public class World implements Iterable<Player> {
     }
 
     public void broadcastPacket(BasePacket packet) {
+        if (this.getPlayerCount() > 1) packet.getData(); // Serialize the body once for everyone.
         // Send to all players - might have to check if player has been sent data packets
         for (Player player : this.getPlayers()) {
             player.getSession().send(packet);
@@ -598,6 +599,15 @@ public class World implements Iterable<Player> {
         return false;
     }
 
+    /** Invoked every fast tick. Ticks the fast lane of every scene with players in it. */
+    public void onFastTick() {
+        this.getScenes()
+                .forEach(
+                        (k, scene) -> {
+                            if (scene.getPlayerCount() > 0) scene.onFastTick();
+                        });
+    }
+
     public void close() {}
 
     /** Returns the in-game world time in real milliseconds. */
@@ -1,7 +1,8 @@
 package emu.grasscutter.net.packet;
 
-import com.google.protobuf.GeneratedMessageV3;
+import com.google.protobuf.*;
 import emu.grasscutter.net.proto.PacketHeadOuterClass.PacketHead;
+import io.netty.buffer.*;
 import java.io.*;
 
 public class BasePacket {
@@ -12,6 +13,7 @@ public class BasePacket {
     private boolean shouldBuildHeader = false;
     private byte[] header;
     private byte[] data;
+    private MessageLite proto; // Serialized lazily, straight into the outgoing frame.
     // Encryption
     private boolean useDispatchKey;
 
@@ -57,21 +59,32 @@ public class BasePacket {
         return shouldBuildHeader;
     }
 
+    /**
+     * Serializes the body if it was set from a proto and has not been serialized yet.
+     *
+     * @return The serialized body.
+     */
     public byte[] getData() {
+        if (this.data == null && this.proto != null) {
+            this.data = this.proto.toByteArray();
+        }
         return data;
     }
 
     public void setData(byte[] data) {
         this.data = data;
+        this.proto = null;
     }
 
     public void setData(GeneratedMessageV3 proto) {
-        this.data = proto.toByteArray();
+        this.data = null;
+        this.proto = proto;
     }
 
     @SuppressWarnings("rawtypes")
     public void setData(GeneratedMessageV3.Builder proto) {
-        this.data = proto.build().toByteArray();
+        this.data = null;
+        this.proto = proto.build();
     }
 
     public BasePacket buildHeader(int clientSequence) {
@@ -87,27 +100,67 @@ public class BasePacket {
         return this;
     }
 
+    /**
+     * @return The encoded frame as a byte array.
+     */
     public byte[] build() {
-        if (getHeader() == null) {
-            this.header = new byte[0];
+        var bytes = new byte[this.getFrameSize()];
+        this.encode(Unpooled.wrappedBuffer(bytes).clear());
+        return bytes;
+    }
+
+    /**
+     * Encodes this packet into a pooled buffer sized exactly for the frame. A body set from a proto
+     * is written straight into the buffer unless it was already serialized (see {@link #getData()}),
+     * which broadcasts use to serialize the body once for all recipients.
+     *
+     * @param allocator The allocator to take the buffer from.
+     * @return The encoded frame. The caller is responsible for releasing it.
+     */
+    public ByteBuf encode(ByteBufAllocator allocator) {
+        var buf = allocator.ioBuffer(this.getFrameSize());
+        try {
+            return this.encode(buf);
+        } catch (RuntimeException exception) {
+            buf.release();
+            throw exception;
         }
+    }
 
-        if (getData() == null) {
-            this.data = new byte[0];
+    private int getFrameSize() {
+        var headerLength = this.header == null ? 0 : this.header.length;
+        var dataLength =
+                this.data != null
+                        ? this.data.length
+                        : this.proto != null ? this.proto.getSerializedSize() : 0;
+
+        return 2 + 2 + 2 + 4 + headerLength + dataLength + 2;
+    }
+
+    private ByteBuf encode(ByteBuf buf) {
+        var header = this.header == null ? PacketHandler.EMPTY_BYTE_ARRAY : this.header;
+
+        buf.writeShort(const1).writeShort(opcode).writeShort(header.length);
+        if (this.data == null && this.proto != null) {
+            var length = this.proto.getSerializedSize();
+            buf.writeInt(length).writeBytes(header);
+
+            // Serialize the proto in place, behind the header.
+            var index = buf.writerIndex();
+            try {
+                var output = CodedOutputStream.newInstance(buf.nioBuffer(index, length));
+                this.proto.writeTo(output);
+                output.checkNoSpaceLeft();
+            } catch (IOException exception) {
+                throw new IllegalStateException("Unable to serialize packet " + this.opcode, exception);
+            }
+            buf.writerIndex(index + length);
+        } else {
+            var data = this.data == null ? PacketHandler.EMPTY_BYTE_ARRAY : this.data;
+            buf.writeInt(data.length).writeBytes(header).writeBytes(data);
         }
 
-        ByteArrayOutputStream baos =
-                new ByteArrayOutputStream(2 + 2 + 2 + 4 + getHeader().length + getData().length + 2);
-
-        this.writeUint16(baos, const1);
-        this.writeUint16(baos, opcode);
-        this.writeUint16(baos, header.length);
-        this.writeUint32(baos, data.length);
-        this.writeBytes(baos, header);
-        this.writeBytes(baos, data);
-        this.writeUint16(baos, const2);
-
-        return baos.toByteArray();
+        return buf.writeShort(const2);
     }
 
     public void writeUint16(ByteArrayOutputStream baos, int i) {
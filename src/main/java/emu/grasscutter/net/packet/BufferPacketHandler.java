@@ -0,0 +1,19 @@
+package emu.grasscutter.net.packet;
+
+import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.*;
+
+/**
+ * Handles a single client packet opcode straight from the network buffer, without copying the
+ * packet into arrays.
+ */
+public abstract class BufferPacketHandler extends PacketHandler {
+    @Override
+    public final void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
+        this.handle(session, Unpooled.wrappedBuffer(header), Unpooled.wrappedBuffer(payload));
+    }
+
+    @Override
+    public abstract void handle(GameSession session, ByteBuf header, ByteBuf payload)
+            throws Exception;
+}
@@ -1,9 +1,41 @@
 package emu.grasscutter.net.packet;
 
+import com.google.protobuf.CodedInputStream;
 import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.*;
 
+/**
+ * Handles a single client packet opcode. Packets are copied out of the network buffer into arrays;
+ * handlers which parse the buffer directly extend {@link BufferPacketHandler} instead.
+ */
 public abstract class PacketHandler {
     protected static final byte[] EMPTY_BYTE_ARRAY = new byte[0];
 
     public abstract void handle(GameSession session, byte[] header, byte[] payload) throws Exception;
+
+    /**
+     * Handles a packet straight from the network buffer. The buffers are only valid for the duration
+     * of this call and must not be retained.
+     *
+     * @param session The session which sent the packet.
+     * @param header The packet header.
+     * @param payload The packet body.
+     */
+    public void handle(GameSession session, ByteBuf header, ByteBuf payload) throws Exception {
+        this.handle(session, ByteBufUtil.getBytes(header), ByteBufUtil.getBytes(payload));
+    }
+
+    /**
+     * Creates a protobuf input stream over the readable bytes of a buffer without copying them.
+     *
+     * @param buf The buffer.
+     * @return An input stream which can be passed to {@code parseFrom}.
+     */
+    protected static CodedInputStream stream(ByteBuf buf) {
+        if (buf.hasArray()) {
+            return CodedInputStream.newInstance(
+                    buf.array(), buf.arrayOffset() + buf.readerIndex(), buf.readableBytes());
+        }
+        return CodedInputStream.newInstance(buf.nioBuffer());
+    }
 }
@@ -0,0 +1,257 @@
+package emu.grasscutter.net.packet;
+
+import static emu.grasscutter.config.Configuration.GAME_INFO;
+import static emu.grasscutter.config.Configuration.SERVER;
+
+import emu.grasscutter.Grasscutter;
+import emu.grasscutter.utils.*;
+import io.netty.buffer.*;
+import io.netty.util.internal.PlatformDependent;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Packet logging. When {@code logPackets} is {@code NONE} this only costs a field comparison. When
+ * enabled, packets are filtered, sampled and rate limited on the calling thread, then handed to a
+ * lock-free queue which a background thread drains into the log and, optionally, a capture file.
+ *
+ * <p>Callers should check {@link #accept(int)} before building the payload passed to {@link
+ * #record}.
+ */
+public final class PacketTracer {
+    /* Capture file layout: MAGIC, VERSION, then (time, direction, opcode, length, payload) records. */
+    private static final int CAPTURE_MAGIC = 0x4743504B; // "GCPK"
+    private static final int CAPTURE_VERSION = 1;
+
+    private static final AtomicIntegerArray sampleCounters = new AtomicIntegerArray(0x10000);
+    private static final AtomicLong rateWindow = new AtomicLong();
+    private static final AtomicInteger rateCount = new AtomicInteger();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile Queue<Record> queue;
+    private static volatile Thread writer;
+    private static volatile boolean stopping;
+
+    /**
+     * Decides whether a packet should be traced. This allocates nothing.
+     *
+     * @param opcode The packet's opcode.
+     * @return True if the packet should be passed to {@link #record}.
+     */
+    public static boolean accept(int opcode) {
+        switch (GAME_INFO.logPackets) {
+            case ALL -> {
+                if (PacketOpcodesUtils.LOOP_PACKETS.contains(opcode) && !GAME_INFO.isShowLoopPackets)
+                    return false;
+            }
+            case WHITELIST -> {
+                if (!SERVER.debugWhitelist.contains(opcode)) return false;
+            }
+            case BLACKLIST -> {
+                if (SERVER.debugBlacklist.contains(opcode)) return false;
+            }
+            default -> {
+                return false;
+            }
+        }
+
+        // Per-opcode sampling.
+        var options = GAME_INFO.packetTrace;
+        if (options.sampleEvery > 1
+                && sampleCounters.getAndIncrement(opcode & 0xFFFF) % options.sampleEvery != 0) {
+            return false;
+        }
+
+        // Global rate cap.
+        if (options.maxPerSecond > 0) {
+            var second = System.currentTimeMillis() / 1000;
+            var window = rateWindow.get();
+            if (window != second && rateWindow.compareAndSet(window, second)) {
+                rateCount.set(0);
+            }
+            if (rateCount.incrementAndGet() > options.maxPerSecond) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Queues a packet to be logged. The payload is copied.
+     *
+     * @param direction A label for where the packet is going, e.g. "SEND" or "RECV".
+     * @param opcode The packet's opcode.
+     * @param payload The packet body.
+     */
+    public static void record(String direction, int opcode, ByteBuf payload) {
+        record(direction, opcode, ByteBufUtil.getBytes(payload));
+    }
+
+    /**
+     * Queues a packet to be logged. The array must not be modified afterwards.
+     *
+     * @param direction A label for where the packet is going, e.g. "SEND" or "RECV".
+     * @param opcode The packet's opcode.
+     * @param payload The packet body.
+     */
+    public static void record(String direction, int opcode, byte[] payload) {
+        var record =
+                new Record(
+                        System.currentTimeMillis(),
+                        direction,
+                        opcode,
+                        payload == null ? PacketHandler.EMPTY_BYTE_ARRAY : payload);
+        if (!PacketTracer.getQueue().offer(record)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return The amount of packets which were not logged because of the rate cap or a full queue.
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private static Queue<Record> getQueue() {
+        var current = queue;
+        if (current != null) return current;
+
+        synchronized (PacketTracer.class) {
+            if (queue == null) {
+                queue = PlatformDependent.newFixedMpscQueue(Math.max(GAME_INFO.packetTrace.bufferSize, 64));
+
+                var writer = new Thread(PacketTracer::drain, "packet-tracer");
+                writer.setDaemon(true);
+                writer.start();
+                PacketTracer.writer = writer;
+            }
+            return queue;
+        }
+    }
+
+    /**
+     * Writes every queued packet, then closes the capture file. Packets recorded afterwards are not
+     * logged. Called when the server shuts down.
+     */
+    public static void shutdown() {
+        Thread writer;
+        synchronized (PacketTracer.class) {
+            writer = PacketTracer.writer;
+            stopping = true;
+        }
+        if (writer == null) return;
+
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Background loop which writes queued packets. */
+    private static void drain() {
+        var queue = PacketTracer.queue;
+        DataOutputStream capture = null;
+        var captureFailed = false;
+        long reportedDrops = 0;
+
+        while (true) {
+            // Read before polling, so every packet queued before shutdown() is written.
+            var stopping = PacketTracer.stopping;
+            var record = queue.poll();
+            if (record == null) {
+                try {
+                    if (capture != null && stopping) capture.close();
+                    else if (capture != null) capture.flush();
+                } catch (IOException exception) {
+                    Grasscutter.getLogger().warn("Unable to write the packet capture.", exception);
+                    capture = null;
+                    captureFailed = true;
+                }
+
+                var drops = dropped.get();
+                if (drops != reportedDrops) {
+                    Grasscutter.getLogger().info("Packet logging skipped {} packets.", drops - reportedDrops);
+                    reportedDrops = drops;
+                }
+
+                if (stopping) return;
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                continue;
+            }
+
+            Grasscutter.getLogger()
+                    .info(
+                            record.direction()
+                                    + ": "
+                                    + PacketOpcodesUtils.getOpcodeName(record.opcode())
+                                    + " ("
+                                    + record.opcode()
+                                    + ")");
+            if (GAME_INFO.isShowPacketPayload) System.out.println(Utils.bytesToHex(record.payload()));
+
+            if (GAME_INFO.packetTrace.capture && !captureFailed) {
+                try {
+                    if (capture == null) capture = PacketTracer.openCapture();
+                    capture.writeLong(record.time());
+                    capture.writeBoolean(record.direction().startsWith("SEND"));
+                    capture.writeInt(record.opcode());
+                    capture.writeInt(record.payload().length);
+                    capture.write(record.payload());
+                } catch (IOException exception) {
+                    Grasscutter.getLogger().warn("Unable to write the packet capture.", exception);
+                    captureFailed = true;
+                }
+            }
+        }
+    }
+
+    private static DataOutputStream openCapture() throws IOException {
+        var path = FileUtils.getPacketPath("capture-" + System.currentTimeMillis() + ".bin");
+        Files.createDirectories(path.getParent());
+
+        var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path)));
+        stream.writeInt(CAPTURE_MAGIC);
+        stream.writeInt(CAPTURE_VERSION);
+
+        Grasscutter.getLogger().info("Capturing packets to {}.", path);
+        return stream;
+    }
+
+    /**
+     * Reads a capture file written by the tracer.
+     *
+     * @param path The capture file.
+     * @return Every packet in the capture, in the order it was recorded.
+     */
+    public static List<Record> readCapture(Path path) throws IOException {
+        try (var stream = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (stream.readInt() != CAPTURE_MAGIC || stream.readInt() != CAPTURE_VERSION) {
+                throw new IOException("Not a packet capture: " + path);
+            }
+
+            var records = new ArrayList<Record>();
+            while (stream.available() > 0) {
+                var time = stream.readLong();
+                var direction = stream.readBoolean() ? "SEND" : "RECV";
+                var opcode = stream.readInt();
+                var payload = new byte[stream.readInt()];
+                stream.readFully(payload);
+
+                records.add(new Record(time, direction, opcode, payload));
+            }
+            return records;
+        }
+    }
+
+    /** A traced packet. */
+    public record Record(long time, String direction, int opcode, byte[] payload) {}
+}
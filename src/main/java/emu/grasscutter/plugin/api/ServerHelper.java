@@ -4,7 +4,7 @@ import emu.grasscutter.Grasscutter;
 import emu.grasscutter.auth.AuthenticationSystem;
 import emu.grasscutter.command.*;
 import emu.grasscutter.game.player.Player;
-import emu.grasscutter.server.game.GameServer;
+import emu.grasscutter.server.game.*;
 import emu.grasscutter.server.http.*;
 import emu.grasscutter.server.scheduler.ServerTaskScheduler;
 import java.util.*;
@@ -77,6 +77,15 @@ public final class ServerHelper {
         return this.gameServer.getPlayers().values().stream();
     }
 
+    /**
+     * Gets the online players, with lookups by UID, account, username and IP address.
+     *
+     * @return The server's online player registry.
+     */
+    public OnlinePlayers getOnlinePlayerRegistry() {
+        return this.gameServer.getOnlinePlayers();
+    }
+
     /**
      * Registers a command to the {@link emu.grasscutter.command.CommandMap}.
      *
@@ -0,0 +1,268 @@
+package emu.grasscutter.scripts;
+
+import emu.grasscutter.game.entity.GameEntity;
+import emu.grasscutter.scripts.constants.ScriptRegionShape;
+import emu.grasscutter.scripts.data.SceneRegion;
+import it.unimi.dsi.fastutil.ints.*;
+import it.unimi.dsi.fastutil.longs.*;
+import it.unimi.dsi.fastutil.objects.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Tracks which entities are inside which script regions of a scene.
+ *
+ * <p>Regions are placed in a uniform grid on the X/Z plane. Each update only tests entities which
+ * moved since the previous update, and only against the regions in their grid cell. Regions which
+ * are added are tested against every entity once.
+ *
+ * <p>Regions may be added and removed from any thread. {@link #update} must only be called from
+ * one thread at a time.
+ */
+public final class RegionIndex {
+    /* Side length of a grid cell. Most regions span a few cells at most. */
+    private static final float CELL_SIZE = 32f;
+    /* Regions covering more cells than this are checked for every moved entity instead. */
+    private static final int MAX_CELLS = 1024;
+
+    private final ConcurrentLinkedQueue<Change> changes = new ConcurrentLinkedQueue<>();
+
+    private final Int2ObjectMap<Region> regions = new Int2ObjectOpenHashMap<>();
+    private final Long2ObjectMap<ObjectList<Region>> grid = new Long2ObjectOpenHashMap<>();
+    private final ObjectList<Region> unbounded = new ObjectArrayList<>();
+    private final Int2ObjectMap<Tracked> entities = new Int2ObjectOpenHashMap<>();
+    private int stamp;
+
+    /**
+     * Starts tracking a region. Applied on the next update.
+     *
+     * @param id The region entity's ID.
+     * @param region The region's script data.
+     */
+    public void add(int id, SceneRegion region) {
+        this.changes.add(new Change(id, region));
+    }
+
+    /**
+     * Stops tracking a region, without leave events. Applied on the next update.
+     *
+     * @param id The region entity's ID.
+     */
+    public void remove(int id) {
+        this.changes.add(new Change(id, null));
+    }
+
+    /**
+     * @return The amount of regions tracked.
+     */
+    public int size() {
+        return this.regions.size();
+    }
+
+    /**
+     * Finds entities which entered or left a region since the previous update. Entities which are
+     * no longer given leave every region they were in.
+     *
+     * @param entities Every entity in the scene.
+     * @param listener Receives the changes, enters first.
+     */
+    public void update(Iterable<? extends GameEntity> entities, Listener listener) {
+        var checkAll = this.applyChanges();
+        var stamp = ++this.stamp;
+
+        var entered = new LongArrayList();
+        var left = new LongArrayList();
+        var inside = new IntArrayList();
+        for (var entity : entities) {
+            var id = entity.getId();
+            var position = entity.getPosition();
+            var x = position.getX();
+            var y = position.getY();
+            var z = position.getZ();
+
+            var tracked = this.entities.get(id);
+            if (tracked == null) {
+                tracked = new Tracked();
+                this.entities.put(id, tracked);
+            } else if (!checkAll && tracked.x == x && tracked.y == y && tracked.z == z) {
+                tracked.stamp = stamp;
+                continue;
+            }
+            tracked.x = x;
+            tracked.y = y;
+            tracked.z = z;
+            tracked.stamp = stamp;
+
+            // Test the regions near the entity.
+            inside.clear();
+            var candidates = this.grid.get(RegionIndex.cell(x, z));
+            if (candidates != null) {
+                for (var region : candidates) {
+                    if (region.meta.contains(position)) inside.add(region.id);
+                }
+            }
+            for (var region : this.unbounded) {
+                if (region.meta.contains(position)) inside.add(region.id);
+            }
+
+            for (var i = 0; i < inside.size(); i++) {
+                var regionId = inside.getInt(i);
+                if (tracked.regions.add(regionId)) entered.add(RegionIndex.pair(regionId, id));
+            }
+            if (tracked.regions.size() != inside.size()) {
+                for (var iterator = tracked.regions.iterator(); iterator.hasNext(); ) {
+                    var regionId = iterator.nextInt();
+                    if (!inside.contains(regionId)) {
+                        iterator.remove();
+                        left.add(RegionIndex.pair(regionId, id));
+                    }
+                }
+            }
+        }
+
+        // Entities which were not given have left the scene.
+        for (var iterator = this.entities.int2ObjectEntrySet().iterator(); iterator.hasNext(); ) {
+            var entry = iterator.next();
+            if (entry.getValue().stamp == stamp) continue;
+
+            var id = entry.getIntKey();
+            entry.getValue().regions.forEach((int regionId) -> left.add(RegionIndex.pair(regionId, id)));
+            iterator.remove();
+        }
+
+        entered.forEach((long pair) -> listener.onEnter((int) (pair >> 32), (int) pair));
+        left.forEach((long pair) -> listener.onLeave((int) (pair >> 32), (int) pair));
+    }
+
+    /**
+     * Applies queued region changes.
+     *
+     * @return True if a region was added, so every entity must be tested.
+     */
+    private boolean applyChanges() {
+        var added = false;
+        Change change;
+        while ((change = this.changes.poll()) != null) {
+            var previous = this.regions.remove(change.id());
+            if (previous != null) this.unindex(previous);
+            if (change.region() == null) continue;
+
+            var region = new Region(change.id(), change.region());
+            this.regions.put(region.id, region);
+            this.index(region);
+            added = true;
+        }
+        return added;
+    }
+
+    private void index(Region region) {
+        var bounds = RegionIndex.bounds(region.meta);
+        if (bounds == null) {
+            this.unbounded.add(region);
+            return;
+        }
+
+        var minX = (int) Math.floor(bounds[0] / CELL_SIZE);
+        var minZ = (int) Math.floor(bounds[1] / CELL_SIZE);
+        var maxX = (int) Math.floor(bounds[2] / CELL_SIZE);
+        var maxZ = (int) Math.floor(bounds[3] / CELL_SIZE);
+        if ((long) (maxX - minX + 1) * (maxZ - minZ + 1) > MAX_CELLS) {
+            this.unbounded.add(region);
+            return;
+        }
+
+        region.cells = new LongArrayList();
+        for (var cellX = minX; cellX <= maxX; cellX++) {
+            for (var cellZ = minZ; cellZ <= maxZ; cellZ++) {
+                var cell = RegionIndex.pair(cellX, cellZ);
+                region.cells.add(cell);
+                this.grid.computeIfAbsent(cell, c -> new ObjectArrayList<>()).add(region);
+            }
+        }
+    }
+
+    private void unindex(Region region) {
+        if (region.cells == null) {
+            this.unbounded.remove(region);
+        } else {
+            region.cells.forEach(
+                    (long cell) -> {
+                        var list = this.grid.get(cell);
+                        list.remove(region);
+                        if (list.isEmpty()) this.grid.remove(cell);
+                    });
+        }
+
+        // Forget membership without leave events.
+        for (var tracked : this.entities.values()) tracked.regions.remove(region.id);
+    }
+
+    /**
+     * @return The region's extent on the X/Z plane as {minX, minZ, maxX, maxZ}, or null if unknown.
+     */
+    private static float[] bounds(SceneRegion region) {
+        var pos = region.pos;
+        if (pos == null) return null;
+
+        return switch (region.shape) {
+            case ScriptRegionShape.SPHERE, ScriptRegionShape.CYLINDER -> new float[] {
+                pos.getX() - region.radius, pos.getZ() - region.radius,
+                pos.getX() + region.radius, pos.getZ() + region.radius
+            };
+            case ScriptRegionShape.CUBIC -> {
+                if (region.size == null) yield null;
+                var halfX = region.size.getX() / 2f;
+                var halfZ = region.size.getZ() / 2f;
+                yield new float[] {pos.getX() - halfX, pos.getZ() - halfZ, pos.getX() + halfX, pos.getZ() + halfZ};
+            }
+            case ScriptRegionShape.POLYGON -> {
+                if (region.point_array == null || region.point_array.isEmpty()) yield null;
+                // Polygon points store the Z coordinate as Y.
+                var bounds = new float[] {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+                for (var point : region.point_array) {
+                    bounds[0] = Math.min(bounds[0], point.getX());
+                    bounds[1] = Math.min(bounds[1], point.getY());
+                    bounds[2] = Math.max(bounds[2], point.getX());
+                    bounds[3] = Math.max(bounds[3], point.getY());
+                }
+                yield bounds;
+            }
+            default -> null;
+        };
+    }
+
+    private static long cell(float x, float z) {
+        return RegionIndex.pair((int) Math.floor(x / CELL_SIZE), (int) Math.floor(z / CELL_SIZE));
+    }
+
+    private static long pair(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /** Receives region changes. */
+    public interface Listener {
+        void onEnter(int regionId, int entityId);
+
+        void onLeave(int regionId, int entityId);
+    }
+
+    /** A queued addition, or removal if the region is null. */
+    private record Change(int id, SceneRegion region) {}
+
+    private static final class Region {
+        final int id;
+        final SceneRegion meta;
+        LongList cells;
+
+        Region(int id, SceneRegion meta) {
+            this.id = id;
+            this.meta = meta;
+        }
+    }
+
+    /** An entity's position at the last update, and the regions it was in. */
+    private static final class Tracked {
+        final IntSet regions = new IntArraySet();
+        float x, y, z;
+        int stamp;
+    }
+}
@@ -20,7 +20,6 @@ import emu.grasscutter.scripts.service.*;
 import emu.grasscutter.server.event.game.SceneMetaLoadEvent;
 import emu.grasscutter.server.packet.send.PacketGroupSuiteNotify;
 import emu.grasscutter.utils.*;
-import io.netty.util.concurrent.FastThreadLocalThread;
 import it.unimi.dsi.fastutil.ints.*;
 import java.io.*;
 import java.nio.file.Files;
@@ -44,13 +43,16 @@ public class SceneScriptManager {
     private final Map<String, SceneTimeAxis> timeAxis = new ConcurrentHashMap<>();
 
     /** current triggers controlled by RefreshGroup */
-    private final Map<Integer, Set<SceneTrigger>> currentTriggers;
+    private final TriggerIndex currentTriggers;
 
     private final Set<SceneTrigger> ongoingTriggers;
     private final Map<String, Set<SceneTrigger>> triggersByGroupScene;
     private final Map<Integer, Set<Pair<String, Integer>>> activeGroupTimers;
     private final Map<String, AtomicInteger> triggerInvocations;
     private final Map<Integer, EntityRegion> regions; // <EntityId-Region>
+    private final RegionIndex regionIndex = new RegionIndex();
+    private final RegionListener regionListener = new RegionListener();
+    private final Queue<ScriptArgs> queuedEvents = new ConcurrentLinkedQueue<>();
     private final Map<Integer, SceneGroup> sceneGroups;
     private final Map<Integer, SceneGroupInstance> sceneGroupsInstances;
     private ScriptMonsterTideService scriptMonsterTideService;
@@ -59,23 +61,17 @@ public class SceneScriptManager {
     private final Map<Integer, Set<SceneGroup>> loadedGroupSetPerBlock;
 
     private static final Int2ObjectMap<List<Grid>> groupGridsCache = new Int2ObjectOpenHashMap<>();
-    public static final ExecutorService eventExecutor;
+    public static final ScriptEventStats eventStats = new ScriptEventStats();
+    public static final ScriptScheduler eventScheduler =
+            new ScriptScheduler(Runtime.getRuntime().availableProcessors());
 
-    static {
-        eventExecutor =
-                new ThreadPoolExecutor(
-                        4,
-                        4,
-                        60,
-                        TimeUnit.SECONDS,
-                        new LinkedBlockingDeque<>(10000),
-                        FastThreadLocalThread::new,
-                        new ThreadPoolExecutor.AbortPolicy());
-    }
+    /** Runs this scene's script events in order. */
+    private final ScriptScheduler.Lane eventLane;
 
     public SceneScriptManager(Scene scene) {
         this.scene = scene;
-        this.currentTriggers = new ConcurrentHashMap<>();
+        this.eventLane = eventScheduler.newLane("scene " + scene.getId());
+        this.currentTriggers = new TriggerIndex();
         this.ongoingTriggers = ConcurrentHashMap.newKeySet();
         this.triggersByGroupScene = new ConcurrentHashMap<>();
         this.activeGroupTimers = new ConcurrentHashMap<>();
@@ -102,6 +98,10 @@ public class SceneScriptManager {
         return scene;
     }
 
+    public ScriptScheduler.Lane getEventLane() {
+        return eventLane;
+    }
+
     public SceneConfig getConfig() {
         for (int i = 0; i < 10; ++i) {
             if (this.isInit) {
@@ -131,11 +131,11 @@ public class SceneScriptManager {
     }
 
     public Set<SceneTrigger> getTriggersByEvent(int eventId) {
-        return currentTriggers.computeIfAbsent(eventId, e -> ConcurrentHashMap.newKeySet());
+        return currentTriggers.getTriggers(eventId);
     }
 
     public int getTriggerCount() {
-        return currentTriggers.size();
+        return currentTriggers.getEventCount();
     }
 
     public void registerTrigger(List<SceneTrigger> triggers) {
@@ -144,7 +144,7 @@ public class SceneScriptManager {
 
     public void registerTrigger(SceneTrigger trigger) {
         this.triggerInvocations.put(trigger.getName(), new AtomicInteger(0));
-        this.getTriggersByEvent(trigger.getEvent()).add(trigger);
+        this.currentTriggers.add(trigger);
         Grasscutter.getLogger()
                 .trace(
                         "Registered trigger {} from group {}", trigger.getName(), trigger.getCurrentGroup().id);
@@ -155,7 +155,7 @@ public class SceneScriptManager {
     }
 
     public void deregisterTrigger(SceneTrigger trigger) {
-        this.getTriggersByEvent(trigger.getEvent()).remove(trigger);
+        this.currentTriggers.remove(trigger);
         Grasscutter.getLogger()
                 .trace(
                         "deregistered trigger {} from group {}",
@@ -164,7 +164,7 @@ public class SceneScriptManager {
     }
 
     public void resetTriggers(int eventId) {
-        currentTriggers.put(eventId, ConcurrentHashMap.newKeySet());
+        currentTriggers.clear(eventId);
     }
 
     public void resetTriggersForGroupSuite(SceneGroup group, int suiteIndex) {
@@ -186,7 +186,7 @@ public class SceneScriptManager {
 
         if (!groupSceneTriggers.isEmpty()) {
             for (var trigger : groupSceneTriggers) {
-                currentTriggers.get(trigger.getEvent()).remove(trigger);
+                currentTriggers.remove(trigger);
             }
             groupSceneTriggers.clear();
         }
@@ -276,11 +276,10 @@ public class SceneScriptManager {
         // refreshGroup may be called by a trigger.
         // If that trigger has been refreshed, ensure it does not get
         // deregistered anyway when the trigger completes its invocation.
-        for (var triggerSet : currentTriggers.values()) {
-            var toSave = new HashSet<SceneTrigger>(triggerSet);
-            toSave.retainAll(ongoingTriggers);
-            toSave.forEach(t -> t.setPreserved(true));
-        }
+        currentTriggers.forEach(
+                t -> {
+                    if (ongoingTriggers.contains(t)) t.setPreserved(true);
+                });
 
         // Refesh variables here
         group.variables.forEach(
@@ -372,6 +371,7 @@ public class SceneScriptManager {
 
     public void registerRegion(EntityRegion region) {
         regions.put(region.getId(), region);
+        this.regionIndex.add(region.getId(), region.getMetaRegion());
         Grasscutter.getLogger()
                 .trace(
                         "Registered region {} from group {}",
@@ -389,7 +389,11 @@ public class SceneScriptManager {
         this.regions.values().stream()
                 .filter(r -> r.getMetaRegion().equals(region))
                 .findFirst()
-                .ifPresent(entityRegion -> this.regions.remove(entityRegion.getId()));
+                .ifPresent(
+                        entityRegion -> {
+                            this.regions.remove(entityRegion.getId());
+                            this.regionIndex.remove(entityRegion.getId());
+                        });
     }
 
     public Map<Integer, Set<SceneGroup>> getLoadedGroupSetPerBlock() {
@@ -680,52 +684,44 @@ public class SceneScriptManager {
     }
 
     public void checkRegions() {
-        if (this.regions.size() == 0) {
+        if (this.regions.isEmpty()) {
             return;
         }
 
-        for (var region : this.regions.values()) {
-            // currently all condition_ENTER_REGION Events check for avatar, so we have no necessary to
-            // add other types of entity
-            var entities =
-                    getScene().getEntities().values().stream()
-                            .filter(e -> region.getMetaRegion().contains(e.getPosition()))
-                            .toList();
-
-            var entitiesIds = entities.stream().map(GameEntity::getId).toList();
-            var enterEntities =
-                    entitiesIds.stream().filter(e -> !region.getEntities().contains(e)).toList();
-            var leaveEntities =
-                    region.getEntities().stream().filter(e -> !entitiesIds.contains(e)).toList();
-
-            entities.forEach(region::addEntity);
+        // Only entities which moved are tested, against the regions near them.
+        this.regionIndex.update(this.getScene().getEntities().values(), this.regionListener);
+    }
 
-            for (var targetId : enterEntities) {
-                if (EntityIdType.toEntityType(targetId >> 24).getValue() == 19) continue;
-                Grasscutter.getLogger()
-                        .trace("Call EVENT_ENTER_REGION_{}", region.getMetaRegion().config_id);
-                this.callEvent(
-                        new ScriptArgs(region.getGroupId(), EventType.EVENT_ENTER_REGION, region.getConfigId())
-                                .setEventSource(EntityIdType.toEntityType(targetId >> 24).getValue())
-                                .setSourceEntityId(region.getId())
-                                .setTargetEntityId(targetId));
-            }
+    /** Updates region members and calls region events. */
+    private final class RegionListener implements RegionIndex.Listener {
+        @Override
+        public void onEnter(int regionId, int targetId) {
+            var region = SceneScriptManager.this.regions.get(regionId);
+            if (region == null) return;
 
-            for (var entityId : region.getEntities()) {
-                var entity = this.getScene().getEntityById(entityId);
-                if (entity == null || !region.getMetaRegion().contains(entity.getPosition())) {
-                    region.removeEntity(entityId);
-                }
-            }
+            region.addEntity(targetId);
+            if (EntityIdType.toEntityType(targetId >> 24).getValue() == 19) return;
+            Grasscutter.getLogger()
+                    .trace("Call EVENT_ENTER_REGION_{}", region.getMetaRegion().config_id);
+            SceneScriptManager.this.callEvent(
+                    new ScriptArgs(region.getGroupId(), EventType.EVENT_ENTER_REGION, region.getConfigId())
+                            .setEventSource(EntityIdType.toEntityType(targetId >> 24).getValue())
+                            .setSourceEntityId(region.getId())
+                            .setTargetEntityId(targetId));
+        }
 
-            for (var targetId : leaveEntities) {
-                if (EntityIdType.toEntityType(targetId >> 24).getValue() == 19) continue;
-                this.callEvent(
-                        new ScriptArgs(region.getGroupId(), EventType.EVENT_LEAVE_REGION, region.getConfigId())
-                                .setEventSource(EntityIdType.toEntityType(targetId >> 24).getValue())
-                                .setSourceEntityId(region.getId())
-                                .setTargetEntityId(targetId));
-            }
+        @Override
+        public void onLeave(int regionId, int targetId) {
+            var region = SceneScriptManager.this.regions.get(regionId);
+            if (region == null) return;
+
+            region.removeEntity(targetId);
+            if (EntityIdType.toEntityType(targetId >> 24).getValue() == 19) return;
+            SceneScriptManager.this.callEvent(
+                    new ScriptArgs(region.getGroupId(), EventType.EVENT_LEAVE_REGION, region.getConfigId())
+                            .setEventSource(EntityIdType.toEntityType(targetId >> 24).getValue())
+                            .setSourceEntityId(region.getId())
+                            .setTargetEntityId(targetId));
         }
     }
 
@@ -840,50 +836,99 @@ public class SceneScriptManager {
     }
 
     public Future<?> callEvent(@Nonnull ScriptArgs params) {
-        /**
-         * We use ThreadLocal to trans SceneScriptManager context to ScriptLib, to avoid eval script for
-         * every groups' trigger in every scene instances. But when callEvent is called in a ScriptLib
-         * func, it may cause NPE because the inner call cleans the ThreadLocal so that outer call could
-         * not get it. e.g. CallEvent -> set -> ScriptLib.xxx -> CallEvent -> set -> remove -> NPE ->
-         * (remove) So we use thread pool to clean the stack to avoid this new issue.
-         */
-        return eventExecutor.submit(() -> this.realCallEvent(params));
+        // Events run after the scene's pending events, never inside the calling script.
+        return this.submitTask(() -> this.realCallEvent(params));
+    }
+
+    /**
+     * Runs a task after the scene's pending script events.
+     *
+     * @return A future completed once the task ran, or failed if the scene's lane was full.
+     */
+    public CompletableFuture<Void> submitTask(Runnable task) {
+        var future = this.eventLane.submit(task);
+        if (future.isCompletedExceptionally()) eventStats.recordRejected();
+        return future;
+    }
+
+    /**
+     * Checks whether any trigger could handle an event. Region events are not checked by group.
+     *
+     * @param eventType The event type.
+     * @param groupId The group ID, or 0 for any group.
+     * @return True if a trigger is registered for the event.
+     */
+    public boolean hasTriggers(int eventType, int groupId) {
+        if (TriggerIndex.isRegionEvent(eventType)) return this.currentTriggers.contains(eventType);
+        return this.currentTriggers.find(eventType, groupId == 0 ? TriggerIndex.WILDCARD : groupId)
+                != null;
+    }
+
+    /**
+     * Queues an event to run with the other events queued this tick, in one task. Events no trigger
+     * listens for are dropped.
+     *
+     * @param params The event.
+     */
+    public void queueEvent(@Nonnull ScriptArgs params) {
+        if (!this.hasTriggers(params.type, params.getGroupId())) {
+            eventStats.recordSuppressed();
+            return;
+        }
+        this.queuedEvents.add(params);
+    }
+
+    /**
+     * Submits the events queued since the last call as one task. Invoked at the end of each tick.
+     * Skipped while the previous batch is still waiting, as the events repeat every tick.
+     */
+    public void flushQueuedEvents() {
+        if (this.queuedEvents.isEmpty()) return;
+
+        var batch = new ArrayList<ScriptArgs>(this.queuedEvents.size());
+        ScriptArgs params;
+        while ((params = this.queuedEvents.poll()) != null) batch.add(params);
+
+        if (this.eventLane.submitCoalesced(this.queuedEvents, () -> batch.forEach(this::realCallEvent))) {
+            eventStats.recordBatch(batch.size());
+        }
     }
 
     private void realCallEvent(@Nonnull ScriptArgs params) {
         try {
-            ScriptLoader.getScriptLib().setSceneScriptManager(this);
-
+            // Region triggers match by region, any others by group.
+            // Buckets are looked up before any trigger runs, as triggers may register others.
             var eventType = params.type;
-            var relevantTriggers =
-                    switch (eventType) {
-                        case EventType.EVENT_ENTER_REGION, EventType.EVENT_LEAVE_REGION -> this
-                                .getTriggersByEvent(eventType)
-                                .stream()
-                                .filter(
-                                        t ->
-                                                (t.getName().length() <= 12
-                                                                || t.getName().substring(13).equals(String.valueOf(params.param1)))
-                                                        && (t.getSource().isEmpty()
-                                                                || t.getSource().equals(params.getEventSource())))
-                                .collect(Collectors.toSet());
-                        default -> this.getTriggersByEvent(eventType).stream()
-                                .filter(
-                                        t -> params.getGroupId() == 0 || t.getCurrentGroup().id == params.getGroupId())
-                                .filter(
-                                        t -> (t.getSource().isEmpty() || t.getSource().equals(params.getEventSource())))
-                                .collect(Collectors.toSet());
-                    };
-
-            for (SceneTrigger trigger : relevantTriggers) {
-                handleEventForTrigger(params, trigger);
+            TriggerIndex.Bucket first, second = null;
+            if (TriggerIndex.isRegionEvent(eventType)) {
+                first = this.currentTriggers.find(eventType, TriggerIndex.WILDCARD);
+                second = this.currentTriggers.find(eventType, params.param1);
+            } else {
+                var groupId = params.getGroupId();
+                first =
+                        this.currentTriggers.find(eventType, groupId == 0 ? TriggerIndex.WILDCARD : groupId);
+            }
+
+            var source = params.getEventSource();
+            var firstSourced = first == null ? null : first.withSource(source);
+            var secondSourced = second == null ? null : second.withSource(source);
+            if (first != null) {
+                this.handleEventForTriggers(params, first.any());
+                this.handleEventForTriggers(params, firstSourced);
+            }
+            if (second != null) {
+                this.handleEventForTriggers(params, second.any());
+                this.handleEventForTriggers(params, secondSourced);
             }
         } catch (Throwable throwable) {
             Grasscutter.getLogger()
                     .error("Condition Trigger " + params.type + " triggered exception", throwable);
-        } finally {
-            // make sure it is removed
-            ScriptLoader.getScriptLib().removeSceneScriptManager();
+        }
+    }
+
+    private void handleEventForTriggers(ScriptArgs params, SceneTrigger[] triggers) {
+        for (var trigger : triggers) {
+            this.handleEventForTrigger(params, trigger);
         }
     }
 
@@ -891,12 +936,10 @@ public class SceneScriptManager {
         Grasscutter.getLogger()
             .trace("checking trigger {} for event {}", trigger, params.type);
         try {
-            // setup execution
-            ScriptLoader.getScriptLib().setCurrentGroup(trigger.currentGroup);
-            ScriptLoader.getScriptLib().setCurrentCallParams(params);
-
-            if (evaluateTriggerCondition(trigger, params)) {
-                callTrigger(trigger, params);
+            // The condition and action share the call's context.
+            var context = new ScriptLib(this, trigger.currentGroup, params, null).toLua();
+            if (evaluateTriggerCondition(trigger, params, context)) {
+                callTrigger(trigger, params, context);
                 return true;
             } else {
                 Grasscutter.getLogger()
@@ -908,12 +951,11 @@ public class SceneScriptManager {
             Grasscutter.getLogger()
                     .error("Condition Trigger " + trigger.getName() + " triggered exception", ex);
             return false;
-        } finally {
-            ScriptLoader.getScriptLib().removeCurrentGroup();
         }
     }
 
-    private boolean evaluateTriggerCondition(SceneTrigger trigger, ScriptArgs params) {
+    private boolean evaluateTriggerCondition(
+            SceneTrigger trigger, ScriptArgs params, LuaValue context) {
         Grasscutter.getLogger()
                 .trace(
                         "Call Condition Trigger {}, [{},{},{}], source_eid {}, target_eid {}",
@@ -923,14 +965,15 @@ public class SceneScriptManager {
                         params.param3,
                         params.source_eid,
                         params.target_eid);
-        LuaValue ret = this.callScriptFunc(trigger.getCondition(), trigger.currentGroup, params);
+        LuaValue ret =
+                this.callScriptFunc(trigger.getCondition(), trigger.currentGroup, params, context);
         return ret.isboolean() && ret.checkboolean();
     }
 
-    private void callTrigger(SceneTrigger trigger, ScriptArgs params) {
+    private void callTrigger(SceneTrigger trigger, ScriptArgs params, LuaValue context) {
         // the SetGroupVariableValueByGroup in tower need the param to record the first stage time
         ongoingTriggers.add(trigger);
-        var ret = this.callScriptFunc(trigger.getAction(), trigger.currentGroup, params);
+        var ret = this.callScriptFunc(trigger.getAction(), trigger.currentGroup, params, context);
         var invocationsCounter = triggerInvocations.get(trigger.getName());
         var invocations = invocationsCounter.incrementAndGet();
         Grasscutter.getLogger().trace("Call Action Trigger {} {}", trigger.getAction(), trigger.getEvent());
@@ -972,7 +1015,8 @@ public class SceneScriptManager {
         ongoingTriggers.remove(trigger);
     }
 
-    private LuaValue callScriptFunc(String funcName, SceneGroup group, ScriptArgs params) {
+    private LuaValue callScriptFunc(
+            String funcName, SceneGroup group, ScriptArgs params, LuaValue context) {
         LuaClosure funcLua = null;
         if (funcName != null && !funcName.isEmpty()) {
             funcLua = (LuaClosure) group.getBindings().get(funcName);
@@ -987,14 +1031,15 @@ public class SceneScriptManager {
                 args = CoerceJavaToLua.coerce(params);
             }
 
-            ret = safetyCall(funcName, funcLua, args, group);
+            ret = safetyCall(funcName, funcLua, context, args, group);
         }
         return ret;
     }
 
-    public LuaValue safetyCall(String name, LuaClosure func, LuaValue args, SceneGroup group) {
+    public LuaValue safetyCall(
+            String name, LuaClosure func, LuaValue context, LuaValue args, SceneGroup group) {
         try {
-            return func.call(ScriptLoader.getScriptLibLua(), args);
+            return func.call(context, args);
         } catch (LuaError error) {
             ScriptLib.logger.error(
                     "[LUA] call trigger failed in group {} with {},{}", group.id, name, args, error);
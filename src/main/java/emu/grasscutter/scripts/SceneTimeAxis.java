@@ -2,14 +2,13 @@ package emu.grasscutter.scripts;
 
 import emu.grasscutter.scripts.constants.EventType;
 import emu.grasscutter.scripts.data.ScriptArgs;
-import java.util.*;
+import emu.grasscutter.server.scheduler.TimerService;
+import java.util.concurrent.TimeUnit;
 import lombok.*;
 
 @Getter
 @RequiredArgsConstructor
 public final class SceneTimeAxis {
-    private final Timer timer = new Timer();
-
     private final SceneScriptManager handle;
     private final int groupId;
 
@@ -17,22 +16,26 @@ public final class SceneTimeAxis {
     private final int delay;
     private final boolean loop;
 
+    private TimerService.Handle timer;
+
     /** Schedules the task to run. */
-    public void start() {
-        int delay = this.delay * 1000;
+    public synchronized void start() {
+        // The event is dispatched to the script executor, so it can be called from the timer thread.
         if (this.loop) {
-            this.timer.scheduleAtFixedRate(new Task(), delay, delay);
+            this.timer =
+                    TimerService.scheduleAtFixedRate(
+                            Runnable::run, new Task(), this.delay, this.delay, TimeUnit.SECONDS);
         } else {
-            this.timer.schedule(new Task(), delay);
+            this.timer = TimerService.schedule(Runnable::run, new Task(), this.delay, TimeUnit.SECONDS);
         }
     }
 
     /** Terminates a repeating task. */
-    public void stop() {
-        this.timer.cancel();
+    public synchronized void stop() {
+        if (this.timer != null) this.timer.cancel();
     }
 
-    final class Task extends TimerTask {
+    final class Task implements Runnable {
         @Override
         public void run() {
             // Invoke script event.
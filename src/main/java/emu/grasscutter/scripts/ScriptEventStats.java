@@ -0,0 +1,64 @@
+package emu.grasscutter.scripts;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for script events. Written from any thread, safe to read from anywhere.
+ *
+ * <p>Queued events are run in one task per scene and tick. Events nothing listens for are
+ * suppressed before they are queued. Rejected events were dropped because their scene's script
+ * lane was full.
+ */
+public final class ScriptEventStats {
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    void recordBatch(int events) {
+        this.batches.increment();
+        this.queued.add(events);
+    }
+
+    void recordSuppressed() {
+        this.suppressed.increment();
+    }
+
+    void recordRejected() {
+        this.rejected.increment();
+    }
+
+    /**
+     * @return The amount of batches of queued events submitted.
+     */
+    public long getBatches() {
+        return this.batches.sum();
+    }
+
+    /**
+     * @return The amount of queued events submitted in batches.
+     */
+    public long getQueued() {
+        return this.queued.sum();
+    }
+
+    /**
+     * @return The amount of events skipped because no trigger listened for them.
+     */
+    public long getSuppressed() {
+        return this.suppressed.sum();
+    }
+
+    /**
+     * @return The amount of events dropped because their scene's lane was full.
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "batches=%d, queued=%d, suppressed=%d, rejected=%d"
+                .formatted(this.getBatches(), this.getQueued(), this.getSuppressed(), this.getRejected());
+    }
+}
@@ -17,9 +17,9 @@ import emu.grasscutter.net.proto.VisionTypeOuterClass.VisionType;
 import emu.grasscutter.scripts.constants.*;
 import emu.grasscutter.scripts.data.*;
 import emu.grasscutter.server.packet.send.*;
-import io.netty.util.concurrent.FastThreadLocal;
 import lombok.val;
 import org.luaj.vm2.*;
+import org.luaj.vm2.lib.jse.CoerceJavaToLua;
 import org.slf4j.*;
 
 import javax.annotation.Nullable;
@@ -29,33 +29,59 @@ import static emu.grasscutter.game.props.EnterReason.Lua;
 import static emu.grasscutter.scripts.ScriptUtils.*;
 import static emu.grasscutter.scripts.constants.GroupKillPolicy.*;
 
+/**
+ * The functions scripts call through {@code ScriptLib}.
+ *
+ * <p>Every script call gets its own instance, which holds the call's scene, group, arguments and
+ * entity, and is passed to the script as its {@code context} argument. Scripts call {@code
+ * ScriptLib.Foo(context, ...)}, which LuaJ invokes on the context instance, so nested and
+ * concurrent calls each see their own state. The instance bound as the {@code ScriptLib} global
+ * has no context.
+ */
 @SuppressWarnings("unused")
 public class ScriptLib {
     public static final Logger logger = Grasscutter.getLogger();
-    private final FastThreadLocal<SceneScriptManager> sceneScriptManager;
-    private final FastThreadLocal<SceneGroup> currentGroup;
-    private final FastThreadLocal<ScriptArgs> callParams;
-    private final FastThreadLocal<GameEntity> currentEntity;
+    private final SceneScriptManager sceneScriptManager;
+    private final SceneGroup currentGroup;
+    private final ScriptArgs callParams;
+    private final GameEntity currentEntity;
+    private LuaValue lua;
 
     public ScriptLib() {
-        this.sceneScriptManager = new FastThreadLocal<>();
-        this.currentGroup = new FastThreadLocal<>();
-        this.callParams = new FastThreadLocal<>();
-        this.currentEntity = new FastThreadLocal<>();
+        this(null, null, null, null);
     }
 
-    public void setSceneScriptManager(SceneScriptManager sceneScriptManager) {
-        this.sceneScriptManager.set(sceneScriptManager);
-    }
-
-    public void removeSceneScriptManager() {
-        this.sceneScriptManager.remove();
+    /**
+     * Creates the context of a script call.
+     *
+     * @param sceneScriptManager The scene the script runs in.
+     * @param currentGroup The group the script belongs to, if any.
+     * @param callParams The event which caused the call, if any.
+     * @param currentEntity The entity the script runs for, if any.
+     */
+    public ScriptLib(
+            SceneScriptManager sceneScriptManager,
+            @Nullable SceneGroup currentGroup,
+            @Nullable ScriptArgs callParams,
+            @Nullable GameEntity currentEntity) {
+        this.sceneScriptManager = sceneScriptManager;
+        this.currentGroup = currentGroup;
+        this.callParams = callParams;
+        this.currentEntity = currentEntity;
+    }
+
+    /**
+     * @return This context as the Lua value passed to scripts.
+     */
+    public LuaValue toLua() {
+        if (this.lua == null) this.lua = CoerceJavaToLua.coerce(this);
+        return this.lua;
     }
 
     public SceneScriptManager getSceneScriptManager() {
-        var ret = sceneScriptManager.get();
-        if (ret == null && currentEntity.get() != null)
-            ret = currentEntity.get().getScene().getScriptManager();
+        var ret = sceneScriptManager;
+        if (ret == null && currentEntity != null)
+            ret = currentEntity.getScene().getScriptManager();
         return Optional.of(ret).get();
     }
 
@@ -69,35 +95,15 @@ public class ScriptLib {
         return sb.toString();
     }
 
-    public void setCurrentGroup(SceneGroup currentGroup) {
-        this.currentGroup.set(currentGroup);
-    }
-
-    public void setCurrentCallParams(ScriptArgs callArgs) {
-        this.callParams.set(callArgs);
-    }
-
     public Optional<SceneGroup> getCurrentGroup() {
-        var ret = this.currentGroup.get();
-        if (ret == null && currentEntity.get() != null)
-            ret = getSceneScriptManager().getGroupById(currentEntity.get().getGroupId());
+        var ret = this.currentGroup;
+        if (ret == null && currentEntity != null)
+            ret = getSceneScriptManager().getGroupById(currentEntity.getGroupId());
         return Optional.of(ret);
     }
 
-    public void removeCurrentGroup() {
-        this.currentGroup.remove();
-    }
-
-    public void setCurrentEntity(GameEntity currentEntity) {
-        this.currentEntity.set(currentEntity);
-    }
-
-    public void removeCurrentEntity() {
-        this.currentEntity.remove();
-    }
-
     public Optional<GameEntity> getCurrentEntity() {
-        return Optional.of(this.currentEntity.get());
+        return Optional.of(this.currentEntity);
     }
 
     private GameEntity createGadget(int configId, SceneGroup group) {
@@ -114,7 +120,7 @@ public class ScriptLib {
 
     @Nullable
     public EntityGadget getCurrentEntityGadget() {
-        val entity = currentEntity.getIfExists();
+        val entity = currentEntity;
         if (entity instanceof EntityGadget) {
             return (EntityGadget) entity;
         }
@@ -168,7 +174,7 @@ public class ScriptLib {
     }
 
     private void printLog(String source, String msg) {
-        var currentGroup = this.currentGroup.getIfExists();
+        var currentGroup = this.currentGroup;
         if (currentGroup != null) {
             logger.trace("[LUA] {} {} {}", source, currentGroup.id, msg);
         } else {
@@ -394,7 +400,7 @@ public class ScriptLib {
 //        }
 //        if(luaIsBroadcast.isboolean()) { } // TODO
 //
-//        sceneScriptManager.get().getScene().broadcastPacket(new PacketBeginCameraSceneLookNotify(cameraParams));
+//        sceneScriptManager.getScene().broadcastPacket(new PacketBeginCameraSceneLookNotify(cameraParams));
         return 0;
     }
 
@@ -403,12 +409,12 @@ public class ScriptLib {
 
     public int CancelGroupTimerEvent(int groupID, String source) {
         logger.debug("[LUA] Call CancelGroupTimerEvent");
-        return sceneScriptManager.get().cancelGroupTimerEvent(groupID, source);
+        return sceneScriptManager.cancelGroupTimerEvent(groupID, source);
     }
 
     public int CauseDungeonFail() {
         logger.debug("[LUA] Call CauseDungeonFail");
-        var scriptManager = sceneScriptManager.getIfExists();
+        var scriptManager = sceneScriptManager;
         if (scriptManager == null) {
             return 1;
         }
@@ -447,7 +453,7 @@ public class ScriptLib {
 
     public LuaValue ChangeGroupVariableValue(String var, int value) {
         logger.debug("[LUA] Call ChangeGroupVariableValue with {},{}", var, value);
-        val groupId = currentGroup.get().id;
+        val groupId = currentGroup.id;
         val variables = getSceneScriptManager().getVariables(groupId);
 
         val old = variables.getOrDefault(var, 0);
@@ -522,7 +528,7 @@ public class ScriptLib {
     public int CreateChannellerSlabCampRewardGadget(int configId) {
         logger.warn("[LUA] Call unimplemented CreateChannellerSlabCampRewardGadget {}", configId);
         // TODO implement fully
-        var group = currentGroup.getIfExists();
+        var group = currentGroup;
         if (group == null) {
             return 1;
         }
@@ -572,7 +578,7 @@ public class ScriptLib {
 
     public int CreateGroupTimerEvent(int groupID, String source, double time) {
         logger.debug("[LUA] Call CreateGroupTimerEvent with {} {} {}", groupID, source, time);
-        return sceneScriptManager.get().createGroupTimerEvent(groupID, source, time);
+        return sceneScriptManager.createGroupTimerEvent(groupID, source, time);
     }
 
     // TODO: CreateGroupTrigger
@@ -639,8 +645,8 @@ public class ScriptLib {
 
     public int DelWorktopOption(int var1) {
         logger.debug("[LUA] Call DelWorktopOption with {}", var1);
-        var callParams = this.callParams.getIfExists();
-        var group = this.currentGroup.getIfExists();
+        var callParams = this.callParams;
+        var group = this.currentGroup;
         if (callParams == null || group == null) {
             return 1;
         }
@@ -729,18 +735,18 @@ public class ScriptLib {
     private LuaValue ExecuteLua(boolean active, int groupId, String funcName, LuaTable args) {
         var sceneManager = getSceneScriptManager();
         var group = sceneManager.getGroupById(groupId);
-        var caller = getCurrentGroup();
-        if (active) setCurrentGroup(group);
+        // An active call runs as the called group.
+        var context =
+                active
+                        ? new ScriptLib(sceneManager, group, this.callParams, this.currentEntity).toLua()
+                        : this.toLua();
         try {
             LuaClosure funcLua = (LuaClosure) group.getBindings().get(funcName);
-            var scriptLibLua = ScriptLoader.getScriptLibLua();
-            return funcLua.invoke(scriptLibLua, scriptLibLua, args.unpack()).arg1();
+            return funcLua.invoke(context, context, args.unpack()).arg1();
         } catch (Exception error) {
             ScriptLib.logger.error(
                 "ExecuteLua failed in group {} with {},{}", groupId, funcName, printTable(args));
             return LuaValue.valueOf(-1);
-        } finally {
-            if (active) setCurrentGroup(caller.get());
         }
     }
 
@@ -919,7 +925,7 @@ public class ScriptLib {
 
     public int GetGroupMonsterCount() {
         int returnValue = (int) getSceneScriptManager().getScene().getEntities().values().stream()
-                .filter(e -> e instanceof EntityMonster && e.getGroupId() == currentGroup.get().id)
+                .filter(e -> e instanceof EntityMonster && e.getGroupId() == currentGroup.id)
                 .count();
         logger.debug("[LUA] Call GetGroupMonsterCount = {}", returnValue);
         return returnValue;
@@ -950,7 +956,7 @@ public class ScriptLib {
     }
 
     public int GetGroupVariableValue(String var) {
-        int returnValue = getSceneScriptManager().getVariables(currentGroup.get().id).getOrDefault(var, 0);
+        int returnValue = getSceneScriptManager().getVariables(currentGroup.id).getOrDefault(var, 0);
         logger.debug("[LUA] Call GetGroupVariableValue with {} = {}", var, returnValue);
         return returnValue;
     }
@@ -1087,7 +1093,7 @@ public class ScriptLib {
     public LuaTable GetSceneUidList() {
         logger.warn("[LUA] Call unchecked GetSceneUidList");
         // TODO check
-        var scriptManager = sceneScriptManager.getIfExists();
+        var scriptManager = sceneScriptManager;
         if (scriptManager == null) {
             return new LuaTable();
         }
@@ -1224,7 +1230,7 @@ public class ScriptLib {
     public int KillGroupEntity(LuaTable var1) {
         logger.debug("[LUA] Call KillGroupEntity with {}", printTable(var1));
         // TODO check
-        var sceneManager = sceneScriptManager.getIfExists();
+        var sceneManager = sceneScriptManager;
         var groupId = var1.get("group_id").optint(-1);
         var killPolicyId = var1.get("kill_policy").optint(-1);
         var gadgetList = var1.get("gadgets");
@@ -1291,7 +1297,7 @@ public class ScriptLib {
 
     public int PlayCutScene(int cutsceneId, int var2) {
         logger.warn("[LUA] Call unchecked PlayCutScene with {} {}", cutsceneId, var2);
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketCutsceneBeginNotify(cutsceneId));
+        sceneScriptManager.getScene().broadcastPacket(new PacketCutsceneBeginNotify(cutsceneId));
         // TODO implement
         return 0;
     }
@@ -1395,13 +1401,13 @@ public class ScriptLib {
         val isBroadcast = luaIsBroadcast.optboolean(true);
         val playPosition = luaToPos(luaPlayPosition);
         val playType = luaPlayType.optint(0); // TODO
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketScenePlayerSoundNotify(playPosition, soundName, playType));
+        sceneScriptManager.getScene().broadcastPacket(new PacketScenePlayerSoundNotify(playPosition, soundName, playType));
         return 0;
     }
 
     public int sendCloseCommonTipsToClient() {
         logger.warn("[LUA] Call unchecked sendCloseCommonTipsToClient");
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketCloseCommonTipsNotify());
+        sceneScriptManager.getScene().broadcastPacket(new PacketCloseCommonTipsNotify());
         return 0;
     }
 
@@ -1413,7 +1419,7 @@ public class ScriptLib {
 
     public int sendShowCommonTipsToClient(String title, String content, int closeTime) {
         logger.debug("[LUA] Call sendShowCommonTipsToClient with {}, {}, {}", title, content, closeTime);
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketShowCommonTipsNotify(title, content, closeTime));
+        sceneScriptManager.getScene().broadcastPacket(new PacketShowCommonTipsNotify(title, content, closeTime));
         return 0;
     }
 
@@ -1521,7 +1527,7 @@ public class ScriptLib {
 
     public int SetGroupVariableValue(String var, int value) {
         logger.debug("[LUA] Call SetGroupVariableValue with {},{}", var, value);
-        val groupId = currentGroup.get().id;
+        val groupId = currentGroup.id;
         return SetGroupVariableValueByGroup(var, value, groupId);
     }
 
@@ -1593,7 +1599,7 @@ public class ScriptLib {
 
         configRoute.setPointArrayId(pointArrayId);
         // TODO also set targetPoint/targetPoints
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketPlatformChangeRouteNotify(entityGadget));
+        sceneScriptManager.getScene().broadcastPacket(new PacketPlatformChangeRouteNotify(entityGadget));
 
         return -1;
     }
@@ -1624,11 +1630,11 @@ public class ScriptLib {
         configRoute.setStartIndex(0);
         configRoute.setStarted(false);
         for (var task : configRoute.getScheduledIndexes()) {
-            sceneScriptManager.get().getScene().getScheduler().cancelTask(task);
+            sceneScriptManager.getScene().getScheduler().cancelTask(task);
         }
         configRoute.getScheduledIndexes().clear();
 
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketPlatformChangeRouteNotify(entityGadget));
+        sceneScriptManager.getScene().broadcastPacket(new PacketPlatformChangeRouteNotify(entityGadget));
         return 0;
     }
 
@@ -1674,8 +1680,8 @@ public class ScriptLib {
 
     public int SetWorktopOptions(LuaTable table) {
         logger.debug("[LUA] Call SetWorktopOptions with {}", printTable(table));
-        var callParams = this.callParams.getIfExists();
-        var group = this.currentGroup.getIfExists();
+        var callParams = this.callParams;
+        var group = this.currentGroup;
         if (callParams == null || group == null) {
             return 1;
         }
@@ -1730,7 +1736,7 @@ public class ScriptLib {
             // the lua script
             return 1;
         }
-        sceneScriptManager.get().getScene().broadcastPacket(new PacketShowClientGuideNotify(guideName));
+        sceneScriptManager.getScene().broadcastPacket(new PacketShowClientGuideNotify(guideName));
         return 0;
     }
 
@@ -1775,7 +1781,7 @@ public class ScriptLib {
 
     public int StartPlatform(int configId) {
         logger.debug("[LUA] Call StartPlatform {} ", configId);
-        val entity = sceneScriptManager.get().getScene().getEntityByConfigId(configId, getCurrentGroup().get().id);
+        val entity = sceneScriptManager.getScene().getEntityByConfigId(configId, getCurrentGroup().get().id);
         if (!(entity instanceof EntityGadget entityGadget)) {
             return 1;
         }
@@ -1814,7 +1820,7 @@ public class ScriptLib {
 
     public int StopPlatform(int configId) {
         logger.debug("[LUA] Call StopPlatform {} ", configId);
-        val entity = sceneScriptManager.get().getScene().getEntityByConfigId(configId, getCurrentGroup().get().id);
+        val entity = sceneScriptManager.getScene().getEntityByConfigId(configId, getCurrentGroup().get().id);
         if (!(entity instanceof EntityGadget entityGadget)) {
             return 1;
         }
@@ -1857,7 +1863,7 @@ public class ScriptLib {
         var y = pos.get("y");
         var z = pos.get("z");
 
-        var scriptManager = sceneScriptManager.getIfExists();
+        var scriptManager = sceneScriptManager;
         if (scriptManager == null || !x.isnumber() || !y.isnumber() || !z.isnumber()) {
             return 2;
         }
@@ -1892,7 +1898,7 @@ public class ScriptLib {
         // Note: dungeonEntryId is also named pointId elsewhere in GC.
         logger.debug("[LUA] Call UnfreezeGroupLimit with {}", dungeonEntryId);
 
-        var scene = sceneScriptManager.get().getScene();
+        var scene = sceneScriptManager.getScene();
         scene.getPlayers().get(0).sendPacket(new PacketUnfreezeGroupLimitNotify(
                 dungeonEntryId,
                 scene.getId()));
@@ -29,6 +29,7 @@ public class ScriptLoader {
     private static Bindings globalBindings;
     private static final int SCOPE = ScriptContext.ENGINE_SCOPE;
     @Getter private static Serializer serializer;
+    /** The ScriptLib global. It has no context; each call gets its own, see {@link ScriptLib}. */
     @Getter private static ScriptLib scriptLib;
     @Getter private static LuaValue scriptLibLua;
     /** suggest GC to remove it if the memory is less */
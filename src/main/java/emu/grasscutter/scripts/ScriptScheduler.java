@@ -0,0 +1,269 @@
+package emu.grasscutter.scripts;
+
+import emu.grasscutter.Grasscutter;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Runs script work on serial lanes which share a pool of worker threads.
+ *
+ * <p>Each scene has its own lane, so its events run one at a time and in the order they were
+ * submitted. A lane with work occupies at most one worker; after {@link #QUANTUM} tasks it goes to
+ * the back of the pool's queue, so busy lanes take turns with the others instead of starving them.
+ *
+ * <p>Lanes are bounded. Tasks submitted to a full lane are dropped and counted rather than thrown.
+ * Repeating work can be submitted with a key, and is skipped while a task with the same key is
+ * still waiting.
+ */
+public final class ScriptScheduler {
+    /* Tasks a lane runs before letting other lanes have the worker. */
+    private static final int QUANTUM = 32;
+    /* Tasks a lane may hold before new ones are dropped. */
+    private static final int CAPACITY = 4096;
+
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final Set<Lane> lanes = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+    /**
+     * @param workerCount The amount of worker threads.
+     */
+    public ScriptScheduler(int workerCount) {
+        var threadId = new AtomicInteger();
+        this.workerCount = workerCount;
+        // The queue holds at most one entry per lane.
+        this.workers =
+                Executors.newFixedThreadPool(
+                        workerCount,
+                        task -> {
+                            var thread =
+                                    new FastThreadLocalThread(task, "Script-Worker-" + threadId.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+    }
+
+    /**
+     * Creates a lane. Lanes need no cleanup, an idle lane holds no worker.
+     *
+     * @param name The lane's name, shown in its stats.
+     */
+    public Lane newLane(String name) {
+        var lane = new Lane(name);
+        this.lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * @return The lanes which are still in use.
+     */
+    public List<Lane> getLanes() {
+        synchronized (this.lanes) {
+            return new ArrayList<>(this.lanes);
+        }
+    }
+
+    @Override
+    public String toString() {
+        var lanes = this.getLanes();
+        var busiest = lanes.stream().max(Comparator.comparingDouble(Lane::getAverageLatencyMillis));
+        return "lanes=%d, workers=%d, slowest=%s"
+                .formatted(lanes.size(), this.workerCount, busiest.map(Lane::toString).orElse("none"));
+    }
+
+    /** Work submitted to a lane. */
+    private record Task(Runnable action, Object key, CompletableFuture<Void> future, long queuedAt) {}
+
+    /**
+     * A serial queue of tasks. Submitting is safe from any thread. Stats are written by the lane's
+     * worker, safe to read from anywhere.
+     */
+    public final class Lane {
+        private final String name;
+        private final Queue<Task> queue = new ConcurrentLinkedQueue<>();
+        private final Set<Object> pendingKeys = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private volatile int maxDepth;
+        private volatile long executed;
+        private volatile long lastLatencyNanos;
+        private volatile long maxLatencyNanos;
+        private volatile double averageLatencyNanos;
+
+        private Lane(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Queues a task.
+         *
+         * @return A future completed once the task ran, or failed if the lane was full.
+         */
+        public CompletableFuture<Void> submit(Runnable action) {
+            var future = new CompletableFuture<Void>();
+            if (!this.enqueue(new Task(action, null, future, System.nanoTime()))) {
+                future.completeExceptionally(new RejectedExecutionException("Lane " + this.name + " is full."));
+            }
+            return future;
+        }
+
+        /**
+         * Queues a task, unless a task with the same key is still waiting to run.
+         *
+         * @param key Identifies tasks which may replace each other.
+         * @return True if the task was queued.
+         */
+        public boolean submitCoalesced(Object key, Runnable action) {
+            if (!this.pendingKeys.add(key)) {
+                this.coalesced.increment();
+                return false;
+            }
+
+            if (!this.enqueue(new Task(action, key, null, System.nanoTime()))) {
+                this.pendingKeys.remove(key);
+                return false;
+            }
+            return true;
+        }
+
+        private boolean enqueue(Task task) {
+            var depth = this.depth.incrementAndGet();
+            if (depth > CAPACITY) {
+                this.depth.decrementAndGet();
+                this.dropped.increment();
+                return false;
+            }
+            if (depth > this.maxDepth) this.maxDepth = depth;
+
+            this.queue.add(task);
+            this.schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (this.scheduled.compareAndSet(false, true)) {
+                ScriptScheduler.this.workers.execute(this::run);
+            }
+        }
+
+        private void run() {
+            for (var i = 0; i < QUANTUM; i++) {
+                var task = this.queue.poll();
+                if (task == null) break;
+                this.depth.decrementAndGet();
+                if (task.key() != null) this.pendingKeys.remove(task.key());
+
+                this.recordLatency(System.nanoTime() - task.queuedAt());
+                try {
+                    task.action().run();
+                    if (task.future() != null) task.future().complete(null);
+                } catch (Throwable throwable) {
+                    if (task.future() != null) task.future().completeExceptionally(throwable);
+                    Grasscutter.getLogger().error("Script task on lane {} failed.", this.name, throwable);
+                }
+            }
+
+            // Go to the back of the pool's queue if there is more work.
+            if (!this.queue.isEmpty()) {
+                ScriptScheduler.this.workers.execute(this::run);
+                return;
+            }
+
+            this.scheduled.set(false);
+            if (!this.queue.isEmpty()) this.schedule();
+        }
+
+        private void recordLatency(long latencyNanos) {
+            this.executed++;
+            this.lastLatencyNanos = latencyNanos;
+            if (latencyNanos > this.maxLatencyNanos) this.maxLatencyNanos = latencyNanos;
+
+            // Exponential moving average over roughly the last 100 tasks.
+            var average = this.averageLatencyNanos;
+            this.averageLatencyNanos =
+                    average == 0 ? latencyNanos : average + (latencyNanos - average) / 100;
+        }
+
+        /**
+         * @return The lane's name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return The amount of tasks waiting to run.
+         */
+        public int getDepth() {
+            return this.depth.get();
+        }
+
+        /**
+         * @return The most tasks which were waiting at once.
+         */
+        public int getMaxDepth() {
+            return this.maxDepth;
+        }
+
+        /**
+         * @return The amount of tasks run.
+         */
+        public long getExecuted() {
+            return this.executed;
+        }
+
+        /**
+         * @return The amount of tasks skipped because an equal one was waiting.
+         */
+        public long getCoalesced() {
+            return this.coalesced.sum();
+        }
+
+        /**
+         * @return The amount of tasks dropped because the lane was full.
+         */
+        public long getDropped() {
+            return this.dropped.sum();
+        }
+
+        /**
+         * @return How long the last task waited to run, in milliseconds.
+         */
+        public double getLastLatencyMillis() {
+            return this.lastLatencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return How long the longest waiting task waited, in milliseconds.
+         */
+        public double getMaxLatencyMillis() {
+            return this.maxLatencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        /**
+         * @return How long tasks waited to run on average, in milliseconds.
+         */
+        public double getAverageLatencyMillis() {
+            return this.averageLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return "%s: depth=%d (max %d), executed=%d, coalesced=%d, dropped=%d, latency=%.2fms avg, %.2fms max"
+                    .formatted(
+                            this.getName(),
+                            this.getDepth(),
+                            this.getMaxDepth(),
+                            this.getExecuted(),
+                            this.getCoalesced(),
+                            this.getDropped(),
+                            this.getAverageLatencyMillis(),
+                            this.getMaxLatencyMillis());
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package emu.grasscutter.scripts;
+
+import emu.grasscutter.scripts.constants.EventType;
+import emu.grasscutter.scripts.data.SceneTrigger;
+import it.unimi.dsi.fastutil.ints.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * The triggers registered in a scene, indexed for event dispatch.
+ *
+ * <p>Triggers of an event are grouped into buckets by key, and split by source within a bucket.
+ * Region events are keyed by the region config ID in the trigger's name ({@code
+ * ENTER_REGION_<id>}), other events by group ID. The {@link #WILDCARD} bucket of a region event
+ * holds triggers named without a region, and that of any other event holds every trigger.
+ *
+ * <p>Two triggers are the same if they have the same name in the same group. {@link
+ * SceneTrigger#equals} ignores the group, so triggers are keyed by both rather than hashed.
+ *
+ * <p>Buckets are immutable and replaced when triggers change, so they can be read and iterated
+ * while triggers are registered from other threads.
+ */
+public final class TriggerIndex {
+    /** The key of the bucket matching every region or group. */
+    public static final int WILDCARD = Integer.MIN_VALUE;
+
+    private static final SceneTrigger[] NONE = new SceneTrigger[0];
+
+    private volatile Int2ObjectMap<Event> events = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * @param event The event type.
+     * @return True if triggers of the event are keyed by region rather than group.
+     */
+    public static boolean isRegionEvent(int event) {
+        return event == EventType.EVENT_ENTER_REGION || event == EventType.EVENT_LEAVE_REGION;
+    }
+
+    /**
+     * Registers a trigger, unless an equal trigger is registered already.
+     *
+     * @return True if the trigger was added.
+     */
+    public synchronized boolean add(SceneTrigger trigger) {
+        var event = this.events.get(trigger.getEvent());
+        if (event == null) {
+            var events = new Int2ObjectOpenHashMap<>(this.events);
+            events.put(trigger.getEvent(), event = new Event());
+            this.events = events;
+        }
+        if (event.triggers.putIfAbsent(Key.of(trigger), trigger) != null) return false;
+
+        var buckets = new Int2ObjectOpenHashMap<>(event.buckets);
+        for (var key : TriggerIndex.keys(trigger)) {
+            buckets.put(key, buckets.getOrDefault(key, Bucket.EMPTY).with(trigger));
+        }
+        event.buckets = buckets;
+        return true;
+    }
+
+    /**
+     * Deregisters a trigger.
+     *
+     * @return True if the trigger was registered.
+     */
+    public synchronized boolean remove(SceneTrigger trigger) {
+        var event = this.events.get(trigger.getEvent());
+        if (event == null) return false;
+
+        // The registered instance decides which buckets the trigger is in.
+        var stored = event.triggers.remove(Key.of(trigger));
+        if (stored == null) return false;
+
+        var buckets = new Int2ObjectOpenHashMap<>(event.buckets);
+        for (var key : TriggerIndex.keys(stored)) {
+            var bucket = buckets.get(key);
+            if (bucket == null) continue;
+
+            bucket = bucket.without(stored);
+            if (bucket == Bucket.EMPTY) buckets.remove(key);
+            else buckets.put(key, bucket);
+        }
+        event.buckets = buckets;
+        return true;
+    }
+
+    /** Deregisters every trigger of an event. */
+    public synchronized void clear(int event) {
+        var events = new Int2ObjectOpenHashMap<>(this.events);
+        events.remove(event);
+        this.events = events;
+    }
+
+    /**
+     * @param event The event type.
+     * @param key A region config ID, group ID or {@link #WILDCARD}.
+     * @return The triggers of the bucket, or null if there are none.
+     */
+    public Bucket find(int event, int key) {
+        var triggers = this.events.get(event);
+        return triggers == null ? null : triggers.buckets.get(key);
+    }
+
+    /**
+     * @return True if any trigger is registered for the event.
+     */
+    public boolean contains(int event) {
+        var triggers = this.events.get(event);
+        return triggers != null && !triggers.triggers.isEmpty();
+    }
+
+    /**
+     * @return A read-only view of the triggers registered for an event.
+     */
+    public Set<SceneTrigger> getTriggers(int event) {
+        var triggers = this.events.get(event);
+        return triggers == null ? Set.of() : triggers.view;
+    }
+
+    /**
+     * @return The amount of event types with registered triggers.
+     */
+    public int getEventCount() {
+        return this.events.size();
+    }
+
+    /** Runs the action for every registered trigger. */
+    public void forEach(Consumer<SceneTrigger> action) {
+        for (var event : this.events.values()) event.triggers.values().forEach(action);
+    }
+
+    /** @return The buckets a trigger belongs to. */
+    private static int[] keys(SceneTrigger trigger) {
+        if (!TriggerIndex.isRegionEvent(trigger.getEvent())) {
+            return new int[] {WILDCARD, trigger.getCurrentGroup().id};
+        }
+
+        // Region triggers are named ENTER_REGION_<id> or LEAVE_REGION_<id>.
+        var name = trigger.getName();
+        if (name.length() <= 12) return new int[] {WILDCARD};
+
+        var region = name.substring(13);
+        try {
+            var id = Integer.parseInt(region);
+            if (Integer.toString(id).equals(region)) return new int[] {id};
+        } catch (NumberFormatException ignored) {
+        }
+        // The name never matches a region.
+        return new int[0];
+    }
+
+    private static boolean same(SceneTrigger a, SceneTrigger b) {
+        return a == b || Key.of(a).equals(Key.of(b));
+    }
+
+    private static boolean hasSource(SceneTrigger trigger) {
+        return trigger.getSource() != null && !trigger.getSource().isEmpty();
+    }
+
+    /** Identifies a trigger by its group and name. */
+    private record Key(int group, String name) {
+        static Key of(SceneTrigger trigger) {
+            return new Key(trigger.getCurrentGroup().id, trigger.getName());
+        }
+    }
+
+    /** The registered triggers of an event, and their buckets. */
+    private static final class Event {
+        final Map<Key, SceneTrigger> triggers = new ConcurrentHashMap<>();
+        volatile Int2ObjectMap<Bucket> buckets = Int2ObjectMaps.emptyMap();
+
+        /** A read-only view of the triggers. */
+        final Set<SceneTrigger> view =
+                new AbstractSet<>() {
+                    @Override
+                    public Iterator<SceneTrigger> iterator() {
+                        return Collections.unmodifiableCollection(triggers.values()).iterator();
+                    }
+
+                    @Override
+                    public int size() {
+                        return triggers.size();
+                    }
+                };
+    }
+
+    /**
+     * The triggers of a bucket.
+     *
+     * @param any Triggers which match any source.
+     * @param bySource Triggers which match one source, by source.
+     */
+    public record Bucket(SceneTrigger[] any, Map<String, SceneTrigger[]> bySource) {
+        static final Bucket EMPTY = new Bucket(NONE, Map.of());
+
+        /**
+         * @param source The event's source.
+         * @return The triggers which only match this source.
+         */
+        public SceneTrigger[] withSource(String source) {
+            return source == null ? NONE : this.bySource.getOrDefault(source, NONE);
+        }
+
+        Bucket with(SceneTrigger trigger) {
+            if (!TriggerIndex.hasSource(trigger)) {
+                return new Bucket(TriggerIndex.append(this.any, trigger), this.bySource);
+            }
+
+            var bySource = new HashMap<>(this.bySource);
+            bySource.put(
+                    trigger.getSource(),
+                    TriggerIndex.append(this.withSource(trigger.getSource()), trigger));
+            return new Bucket(this.any, bySource);
+        }
+
+        Bucket without(SceneTrigger trigger) {
+            var any = this.any;
+            var bySource = this.bySource;
+            if (!TriggerIndex.hasSource(trigger)) {
+                any = TriggerIndex.drop(any, trigger);
+            } else {
+                var triggers = TriggerIndex.drop(this.withSource(trigger.getSource()), trigger);
+                bySource = new HashMap<>(bySource);
+                if (triggers.length == 0) bySource.remove(trigger.getSource());
+                else bySource.put(trigger.getSource(), triggers);
+            }
+            return any.length == 0 && bySource.isEmpty() ? EMPTY : new Bucket(any, bySource);
+        }
+    }
+
+    private static SceneTrigger[] append(SceneTrigger[] triggers, SceneTrigger trigger) {
+        var copy = Arrays.copyOf(triggers, triggers.length + 1);
+        copy[triggers.length] = trigger;
+        return copy;
+    }
+
+    private static SceneTrigger[] drop(SceneTrigger[] triggers, SceneTrigger trigger) {
+        for (var i = 0; i < triggers.length; i++) {
+            if (!TriggerIndex.same(triggers[i], trigger)) continue;
+
+            var copy = new SceneTrigger[triggers.length - 1];
+            System.arraycopy(triggers, 0, copy, 0, i);
+            System.arraycopy(triggers, i + 1, copy, i, copy.length - i);
+            return copy.length == 0 ? NONE : copy;
+        }
+        return triggers;
+    }
+}
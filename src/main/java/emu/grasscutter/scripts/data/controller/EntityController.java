@@ -105,11 +105,8 @@ public class EntityController {
 
         if (funcLua != null) {
             try {
-                ScriptLoader.getScriptLib().setCurrentEntity(entity);
-                ret =
-                        funcLua
-                                .invoke(new LuaValue[] {ScriptLoader.getScriptLibLua(), arg1, arg2, arg3})
-                                .arg1();
+                var context = new ScriptLib(entity.getScene().getScriptManager(), null, null, entity);
+                ret = funcLua.invoke(new LuaValue[] {context.toLua(), arg1, arg2, arg3}).arg1();
             } catch (LuaError error) {
                 ScriptLib.logger.error(
                         "[LUA] call function failed in gadget {} with {} {} {},{}",
@@ -3,18 +3,26 @@ package emu.grasscutter.server.event.game;
 import emu.grasscutter.server.event.Cancellable;
 import emu.grasscutter.server.event.types.ServerEvent;
 import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.*;
 
 public final class ReceivePacketEvent extends ServerEvent implements Cancellable {
     private final GameSession gameSession;
     private final int packetId;
+    private final ByteBuf packetBuffer;
     private byte[] packetData;
 
     public ReceivePacketEvent(GameSession gameSession, int packetId, byte[] packetData) {
+        this(gameSession, packetId, Unpooled.wrappedBuffer(packetData));
+
+        this.packetData = packetData;
+    }
+
+    public ReceivePacketEvent(GameSession gameSession, int packetId, ByteBuf packetBuffer) {
         super(Type.GAME);
 
         this.gameSession = gameSession;
         this.packetId = packetId;
-        this.packetData = packetData;
+        this.packetBuffer = packetBuffer;
     }
 
     public GameSession getGameSession() {
@@ -25,11 +33,26 @@ public final class ReceivePacketEvent extends ServerEvent implements Cancellable
         return this.packetId;
     }
 
+    /**
+     * The packet body is only copied out of the network buffer once this is called.
+     *
+     * @return The packet body.
+     */
     public byte[] getPacketData() {
+        if (this.packetData == null) {
+            this.packetData = ByteBufUtil.getBytes(this.packetBuffer);
+        }
         return this.packetData;
     }
 
     public void setPacketData(byte[] packetData) {
         this.packetData = packetData;
     }
+
+    /**
+     * @return The packet body, including any changes made by listeners.
+     */
+    public ByteBuf getPacketBuffer() {
+        return this.packetData == null ? this.packetBuffer : Unpooled.wrappedBuffer(this.packetData);
+    }
 }
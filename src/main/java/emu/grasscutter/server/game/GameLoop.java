@@ -0,0 +1,96 @@
+package emu.grasscutter.server.game;
+
+import static emu.grasscutter.utils.lang.Language.translate;
+
+import emu.grasscutter.Grasscutter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The server's fixed-timestep game loop. It runs {@link GameServer#onFastTick()} {@code tickRate}
+ * times per second and {@link GameServer#onTick()} once per second, on a dedicated thread.
+ *
+ * <p>Ticks are scheduled against absolute deadlines, so slow ticks do not make the loop drift. A
+ * loop which falls behind catches up on a few missed ticks and skips the rest.
+ */
+public final class GameLoop implements Runnable {
+    /* The most missed ticks which are run back to back before the rest are skipped. */
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private final GameServer server;
+    private final TickStats stats;
+    private final int tickRate;
+    private final long periodNanos;
+
+    private volatile Thread thread;
+
+    /**
+     * @param server The server to tick.
+     * @param tickRate The amount of fast ticks per second. Values below 1 are treated as 1.
+     */
+    public GameLoop(GameServer server, int tickRate) {
+        this.server = server;
+        this.stats = server.getTickStats();
+        this.tickRate = Math.max(tickRate, 1);
+        this.periodNanos = TimeUnit.SECONDS.toNanos(1) / this.tickRate;
+
+        this.stats.setTickRate(this.tickRate);
+    }
+
+    /** Starts the loop on a new thread. */
+    public synchronized void start() {
+        if (this.thread != null) return;
+
+        this.thread = new Thread(this, "game-loop");
+        this.thread.start();
+    }
+
+    /** Stops the loop after the current tick. */
+    public synchronized void stop() {
+        var thread = this.thread;
+        this.thread = null;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    @Override
+    public void run() {
+        long tick = 0, nextSlowTick = 0;
+        var deadline = System.nanoTime();
+
+        while (this.thread == Thread.currentThread()) {
+            var now = System.nanoTime();
+            if (now < deadline) {
+                LockSupport.parkNanos(deadline - now);
+                continue;
+            }
+
+            // Skip ticks we are too far behind on.
+            var behind = (now - deadline) / this.periodNanos;
+            if (behind > MAX_CATCH_UP_TICKS) {
+                this.stats.recordSkipped(behind);
+                tick += behind;
+                deadline += behind * this.periodNanos;
+            }
+            this.stats.recordLateness(now - deadline);
+
+            try {
+                this.server.onFastTick();
+
+                if (tick >= nextSlowTick) {
+                    this.server.onTick();
+
+                    nextSlowTick += this.tickRate;
+                    if (nextSlowTick <= tick) {
+                        // Slow ticks which fell into a skipped range are not run.
+                        nextSlowTick = tick - tick % this.tickRate + this.tickRate;
+                    }
+                }
+            } catch (Exception exception) {
+                Grasscutter.getLogger().error(translate("messages.game.game_update_error"), exception);
+            }
+
+            tick++;
+            deadline += this.periodNanos;
+        }
+    }
+}
@@ -56,7 +56,7 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
     // Game server base
     private final InetSocketAddress address;
     private final GameServerPacketHandler packetHandler;
-    private final Map<Integer, Player> players;
+    private final OnlinePlayers onlinePlayers;
     private final Set<World> worlds;
     private final Int2ObjectMap<HomeWorld> homeWorlds;
 
@@ -83,6 +83,9 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
     // Extra
     private final ServerTaskScheduler scheduler;
     private final TaskMap taskMap;
+    private final TickEngine tickEngine;
+    private final TickStats tickStats = new TickStats();
+    private GameLoop gameLoop;
 
     private ChatSystemHandler chatManager;
 
@@ -104,11 +107,12 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
             // Set all the systems to null.
             this.scheduler = null;
             this.taskMap = null;
+            this.tickEngine = null;
 
             this.address = null;
             this.packetHandler = null;
             this.dispatchClient = null;
-            this.players = null;
+            this.onlinePlayers = null;
             this.worlds = null;
             this.homeWorlds = null;
 
@@ -152,13 +156,14 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
         this.address = address;
         this.packetHandler = new GameServerPacketHandler(PacketHandler.class);
         this.dispatchClient = new DispatchClient(GameServer.getDispatchUrl());
-        this.players = new ConcurrentHashMap<>();
+        this.onlinePlayers = new OnlinePlayers();
         this.worlds = Collections.synchronizedSet(new HashSet<>());
         this.homeWorlds = Int2ObjectMaps.synchronize(new Int2ObjectOpenHashMap<>());
 
         // Extra
         this.scheduler = new ServerTaskScheduler();
         this.taskMap = new TaskMap(true);
+        this.tickEngine = new TickEngine(GAME_INFO.tickThreads);
 
         // Create game systems
         this.inventorySystem = new InventorySystem(this);
@@ -210,8 +215,24 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
         this.chatManager = chatManager;
     }
 
+    /**
+     * @return A read-only view of the online players by UID.
+     */
+    public Map<Integer, Player> getPlayers() {
+        return this.onlinePlayers == null ? null : this.onlinePlayers.asMap();
+    }
+
     public void registerPlayer(Player player) {
-        getPlayers().put(player.getUid(), player);
+        this.onlinePlayers.register(player);
+    }
+
+    /**
+     * Removes a player from the online players.
+     *
+     * @param player The player. Nothing happens if another login of the same player replaced it.
+     */
+    public void deregisterPlayer(Player player) {
+        this.onlinePlayers.remove(player);
     }
 
     @Nullable public Player getPlayerByUid(int id) {
@@ -225,7 +246,7 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
         }
 
         // Get from online players
-        Player player = this.getPlayers().get(id);
+        Player player = this.onlinePlayers.getByUid(id);
 
         if (!allowOfflinePlayers) {
             return player;
@@ -240,11 +261,7 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
     }
 
     public Player getPlayerByAccountId(String accountId) {
-        Optional<Player> playerOpt =
-                getPlayers().values().stream()
-                        .filter(player -> player.getAccount().getId().equals(accountId))
-                        .findFirst();
-        return playerOpt.orElse(null);
+        return this.onlinePlayers.getByAccountId(accountId);
     }
 
     /**
@@ -254,13 +271,7 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
      * @return The player, or null if one could not be found.
      */
     public Player getPlayerByIpAddress(String ipAddress) {
-        return this.getPlayers().values().stream()
-                .map(Player::getSession)
-                .filter(
-                        session -> session != null && session.getAddress().getHostString().equals(ipAddress))
-                .map(GameSession::getPlayer)
-                .findFirst()
-                .orElse(null);
+        return this.onlinePlayers.getByAddress(ipAddress).stream().findFirst().orElse(null);
     }
 
     public SocialDetail.Builder getSocialDetailByUid(int id) {
@@ -275,24 +286,19 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
     }
 
     public Account getAccountByName(String username) {
-        Optional<Player> playerOpt =
-                getPlayers().values().stream()
-                        .filter(player -> player.getAccount().getUsername().equals(username))
-                        .findFirst();
-        if (playerOpt.isPresent()) {
-            return playerOpt.get().getAccount();
+        var account = this.onlinePlayers.getAccountByUsername(username);
+        if (account != null) {
+            return account;
         }
         return DatabaseHelper.getAccountByName(username);
     }
 
     public synchronized void onTick() {
         var tickStart = Instant.now();
+        var startNanos = System.nanoTime();
 
-        // Tick worlds and home worlds.
-        this.worlds.removeIf(World::onTick);
-
-        // Tick players.
-        this.players.values().forEach(Player::onTick);
+        // Tick worlds, home worlds and players in parallel.
+        this.tickEngine.tick(this.worlds, this.getPlayers().values());
 
         // Tick scheduler.
         this.getScheduler().runTasks();
@@ -300,6 +306,20 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
         // Call server tick event.
         ServerTickEvent event = new ServerTickEvent(tickStart, Instant.now());
         event.call();
+
+        this.tickStats.record(System.nanoTime() - startNanos, TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Invoked {@code game.tickRate} times per second, before {@link #onTick()} when both are due.
+     * Handles checks which should not wait for the next second, like region triggers.
+     */
+    public void onFastTick() {
+        var startNanos = System.nanoTime();
+
+        this.tickEngine.forEachWorld(this.worlds, World::onFastTick);
+
+        this.tickStats.recordFastTick(System.nanoTime() - startNanos);
     }
 
     public void registerWorld(World world) {
@@ -327,21 +347,9 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
             this.dispatchClient.connect();
         }
 
-        // Schedule game loop.
-        Timer gameLoop = new Timer();
-        gameLoop.scheduleAtFixedRate(
-                new TimerTask() {
-                    @Override
-                    public void run() {
-                        try {
-                            onTick();
-                        } catch (Exception e) {
-                            Grasscutter.getLogger().error(translate("messages.game.game_update_error"), e);
-                        }
-                    }
-                },
-                new Date(),
-                1000L);
+        // Start game loop.
+        this.gameLoop = new GameLoop(this, GAME_INFO.tickRate);
+        this.gameLoop.start();
         Grasscutter.getLogger().info(translate("messages.status.free_software"));
         Grasscutter.getLogger()
                 .info(translate("messages.game.address_bind", GAME_INFO.accessAddress, address.getPort()));
@@ -359,15 +367,17 @@ public final class GameServer extends KcpServer implements Iterable<Player> {
 
         Utils.sleep(1000L); // Wait 1 second for operations to finish.
         this.stop(); // Stop the server.
+        if (this.gameLoop != null) this.gameLoop.stop();
+        this.tickEngine.shutdown();
 
         try {
-            var threadPool = GameSessionManager.getLogicThread();
+            var threadPool = GameSessionManager.getLogicThreads();
 
-            // Shutdown network thread.
+            // Shutdown logic threads.
             threadPool.shutdownGracefully();
-            // Wait for the network thread to finish.
+            // Wait for the logic threads to finish.
             if (!threadPool.awaitTermination(5, TimeUnit.SECONDS)) {
-                Grasscutter.getLogger().error("Logic thread did not terminate!");
+                Grasscutter.getLogger().error("Logic threads did not terminate!");
             }
         } catch (InterruptedException ignored) {
         }
@@ -7,6 +7,7 @@ import emu.grasscutter.Grasscutter.ServerDebugMode;
 import emu.grasscutter.net.packet.*;
 import emu.grasscutter.server.event.game.ReceivePacketEvent;
 import emu.grasscutter.server.game.GameSession.SessionState;
+import io.netty.buffer.*;
 import it.unimi.dsi.fastutil.ints.*;
 
 public final class GameServerPacketHandler {
@@ -45,6 +46,10 @@ public final class GameServerPacketHandler {
     }
 
     public void handle(GameSession session, int opcode, byte[] header, byte[] payload) {
+        this.handle(session, opcode, Unpooled.wrappedBuffer(header), Unpooled.wrappedBuffer(payload));
+    }
+
+    public void handle(GameSession session, int opcode, ByteBuf header, ByteBuf payload) {
         PacketHandler handler = this.handlers.get(opcode);
 
         if (handler != null) {
@@ -79,7 +84,7 @@ public final class GameServerPacketHandler {
                 ReceivePacketEvent event = new ReceivePacketEvent(session, opcode, payload);
                 event.call();
                 if (!event.isCanceled()) // If event is not canceled, continue.
-                handler.handle(session, header, event.getPacketData());
+                handler.handle(session, header, event.getPacketBuffer());
             } catch (Exception ex) {
                 // TODO Remove this when no more needed
                 ex.printStackTrace();
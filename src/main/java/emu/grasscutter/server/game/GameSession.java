@@ -11,13 +11,15 @@ import emu.grasscutter.net.packet.*;
 import emu.grasscutter.server.event.game.SendPacketEvent;
 import emu.grasscutter.utils.*;
 import io.netty.buffer.*;
-import java.io.File;
+import io.netty.channel.EventLoop;
+import java.io.*;
 import java.net.InetSocketAddress;
 import java.nio.file.Path;
 import lombok.*;
 
 public class GameSession implements GameSessionManager.KcpChannel {
     private final GameServer server;
+    @Getter private final EventLoop logicExecutor;
     private GameSessionManager.KcpTunnel tunnel;
 
     @Getter @Setter private Account account;
@@ -33,8 +35,9 @@ public class GameSession implements GameSessionManager.KcpChannel {
     @Getter private long lastPingTime;
     private int lastClientSeq = 10;
 
-    public GameSession(GameServer server) {
+    public GameSession(GameServer server, EventLoop logicExecutor) {
         this.server = server;
+        this.logicExecutor = logicExecutor;
         this.state = SessionState.WAITING_FOR_TOKEN;
         this.lastPingTime = System.currentTimeMillis();
 
@@ -97,10 +100,31 @@ public class GameSession implements GameSessionManager.KcpChannel {
         send(basePacket);
     }
 
+    /**
+     * Replays the server packets of a capture written by {@link PacketTracer}.
+     *
+     * @param name The name of the capture file in the packets folder.
+     */
+    public void replayPacket(String name) {
+        try {
+            for (var record : PacketTracer.readCapture(FileUtils.getPacketPath(name))) {
+                if (!record.direction().equals("SEND")) continue;
+
+                var packet = new BasePacket(record.opcode(), true);
+                packet.setData(record.payload());
+                this.send(packet);
+            }
+        } catch (IOException exception) {
+            Grasscutter.getLogger().warn("Unable to replay packet capture {}.", name, exception);
+        }
+    }
+
     public void logPacket(String sendOrRecv, int opcode, byte[] payload) {
-        Grasscutter.getLogger()
-                .info(sendOrRecv + ": " + PacketOpcodesUtils.getOpcodeName(opcode) + " (" + opcode + ")");
-        if (GAME_INFO.isShowPacketPayload) System.out.println(Utils.bytesToHex(payload));
+        PacketTracer.record(sendOrRecv, opcode, payload);
+    }
+
+    public void logPacket(String sendOrRecv, int opcode, ByteBuf payload) {
+        PacketTracer.record(sendOrRecv, opcode, payload);
     }
 
     public void send(BasePacket packet) {
@@ -116,43 +140,23 @@ public class GameSession implements GameSessionManager.KcpChannel {
         }
 
         // Log
-        switch (GAME_INFO.logPackets) {
-            case ALL -> {
-                if (!PacketOpcodesUtils.LOOP_PACKETS.contains(packet.getOpcode())
-                        || GAME_INFO.isShowLoopPackets) {
-                    logPacket("SEND", packet.getOpcode(), packet.getData());
-                }
-            }
-            case WHITELIST -> {
-                if (SERVER.debugWhitelist.contains(packet.getOpcode())) {
-                    logPacket("SEND", packet.getOpcode(), packet.getData());
-                }
-            }
-            case BLACKLIST -> {
-                if (!SERVER.debugBlacklist.contains(packet.getOpcode())) {
-                    logPacket("SEND", packet.getOpcode(), packet.getData());
-                }
-            }
-            default -> {}
+        if (PacketTracer.accept(packet.getOpcode())) {
+            PacketTracer.record("SEND", packet.getOpcode(), packet.getData());
         }
 
-        Grasscutter.getLogger()
-            .info("Send: " + PacketOpcodesUtils.getOpcodeName(packet.getOpcode()) + " (" + packet.getOpcode() + ")");
-
         // Invoke event.
         SendPacketEvent event = new SendPacketEvent(this, packet);
         event.call();
         if (!event.isCanceled()) { // If event is not cancelled, continue.
             try {
                 packet = event.getPacket();
-                var bytes = packet.build();
+                var buf = packet.encode(PooledByteBufAllocator.DEFAULT);
                 if (packet.shouldEncrypt) {
-                    //Crypto.xor(bytes, packet.useDispatchKey() ? Crypto.DISPATCH_KEY : this.encryptKey);
                     if (Grasscutter.getConfig().server.game.useXorEncryption) {
-                        Crypto.xor(bytes, packet.useDispatchKey() ? Crypto.DISPATCH_KEY : this.encryptKey);
+                        Crypto.xor(buf, packet.useDispatchKey() ? Crypto.DISPATCH_KEY : this.encryptKey);
                     }
                 }
-                tunnel.writeData(bytes);
+                tunnel.writeData(buf);
             } catch (Exception ignored) {
                 Grasscutter.getLogger().debug("Unable to send packet to client.");
             }
@@ -166,16 +170,12 @@ public class GameSession implements GameSessionManager.KcpChannel {
     }
 
     @Override
-    public void handleReceive(byte[] bytes) {
-        // Decrypt and turn back into a packet
-        //Crypto.xor(bytes, useSecretKey() ? this.encryptKey : Crypto.DISPATCH_KEY);
+    public void handleReceive(ByteBuf packet) {
+        // Decrypt in place.
         if (Grasscutter.getConfig().server.game.useXorEncryption) {
-            Crypto.xor(bytes, useSecretKey() ? this.encryptKey : Crypto.DISPATCH_KEY);
+            Crypto.xor(packet, useSecretKey() ? this.encryptKey : Crypto.DISPATCH_KEY);
         }
-        ByteBuf packet = Unpooled.wrappedBuffer(bytes);
 
-        // Log
-        // logPacket(packet);
         // Handle
         try {
             boolean allDebug = GAME_INFO.logPackets == ServerDebugMode.ALL;
@@ -197,11 +197,8 @@ public class GameSession implements GameSessionManager.KcpChannel {
                 int opcode = packet.readShort();
                 int headerLength = packet.readShort();
                 int payloadLength = packet.readInt();
-                byte[] header = new byte[headerLength];
-                byte[] payload = new byte[payloadLength];
-
-                packet.readBytes(header);
-                packet.readBytes(payload);
+                ByteBuf header = packet.readSlice(headerLength);
+                ByteBuf payload = packet.readSlice(payloadLength);
                 // Sanity check #2
                 int const2 = packet.readShort();
                 if (const2 != -30293) {
@@ -213,35 +210,16 @@ public class GameSession implements GameSessionManager.KcpChannel {
                 }
 
                 // Log packet
-                switch (GAME_INFO.logPackets) {
-                    case ALL -> {
-                        if (!PacketOpcodesUtils.LOOP_PACKETS.contains(opcode) || GAME_INFO.isShowLoopPackets) {
-                            logPacket("RECV", opcode, payload);
-                        }
-                    }
-                    case WHITELIST -> {
-                        if (SERVER.debugWhitelist.contains(opcode)) {
-                            logPacket("RECV", opcode, payload);
-                        }
-                    }
-                    case BLACKLIST -> {
-                        if (!(SERVER.debugBlacklist.contains(opcode))) {
-                            logPacket("RECV", opcode, payload);
-                        }
-                    }
-                    default -> {}
+                if (PacketTracer.accept(opcode)) {
+                    PacketTracer.record("RECV", opcode, payload);
                 }
 
-                Grasscutter.getLogger()
-                    .info("Recv: " + PacketOpcodesUtils.getOpcodeName(opcode) + " (" + opcode + ")");
-
                 // Handle
                 getServer().getPacketHandler().handle(this, opcode, header, payload);
             }
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
-            // byteBuf.release(); //Needn't
             packet.release();
         }
     }
@@ -1,16 +1,17 @@
 package emu.grasscutter.server.game;
 
+import static emu.grasscutter.config.Configuration.GAME_INFO;
+
 import emu.grasscutter.Grasscutter;
-import emu.grasscutter.utils.Utils;
 import io.netty.buffer.*;
-import io.netty.channel.DefaultEventLoop;
 import java.net.InetSocketAddress;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
 import kcp.highway.*;
 import lombok.Getter;
 
 public class GameSessionManager {
-    @Getter private static final DefaultEventLoop logicThread = new DefaultEventLoop();
+    @Getter
+    private static final LogicExecutorGroup logicThreads = new LogicExecutorGroup(GAME_INFO.logicThreads);
     private static final ConcurrentHashMap<Ukcp, GameSession> sessions = new ConcurrentHashMap<>();
     private static final KcpListener listener =
             new KcpListener() {
@@ -34,7 +35,8 @@ public class GameSessionManager {
                         }
                         server = Grasscutter.getGameServer();
                     }
-                    GameSession conversation = new GameSession(server);
+                    GameSession conversation =
+                            new GameSession(server, logicThreads.next(ukcp.getConv()));
                     conversation.onConnected(
                             new KcpTunnel() {
                                 @Override
@@ -43,10 +45,12 @@ public class GameSessionManager {
                                 }
 
                                 @Override
-                                public void writeData(byte[] bytes) {
-                                    ByteBuf buf = Unpooled.wrappedBuffer(bytes);
-                                    ukcp.write(buf);
-                                    buf.release();
+                                public void writeData(ByteBuf buf) {
+                                    try {
+                                        ukcp.write(buf);
+                                    } finally {
+                                        buf.release();
+                                    }
                                 }
 
                                 @Override
@@ -64,18 +68,25 @@ public class GameSessionManager {
 
                 @Override
                 public void handleReceive(ByteBuf buf, Ukcp kcp) {
-                    var byteData = Utils.byteBufToArray(buf);
-                    logicThread.execute(
-                            () -> {
-                                try {
-                                    var conversation = sessions.get(kcp);
-                                    if (conversation != null) {
-                                        conversation.handleReceive(byteData);
-                                    }
-                                } catch (Exception e) {
-                                    e.printStackTrace();
-                                }
-                            });
+                    var conversation = sessions.get(kcp);
+                    if (conversation == null) return;
+
+                    // The session releases the buffer once it has been handled.
+                    buf.retain();
+                    try {
+                        conversation
+                                .getLogicExecutor()
+                                .execute(
+                                        () -> {
+                                            try {
+                                                conversation.handleReceive(buf);
+                                            } catch (Exception e) {
+                                                e.printStackTrace();
+                                            }
+                                        });
+                    } catch (RejectedExecutionException ignored) {
+                        buf.release();
+                    }
                 }
 
                 @Override
@@ -98,7 +109,16 @@ public class GameSessionManager {
     public interface KcpTunnel {
         InetSocketAddress getAddress();
 
-        void writeData(byte[] bytes);
+        /**
+         * Queues a frame to be sent to the client.
+         *
+         * @param buf The frame. Ownership is transferred; the tunnel releases it.
+         */
+        void writeData(ByteBuf buf);
+
+        default void writeData(byte[] bytes) {
+            this.writeData(Unpooled.wrappedBuffer(bytes));
+        }
 
         void close();
 
@@ -110,6 +130,6 @@ public class GameSessionManager {
 
         void handleClose();
 
-        void handleReceive(byte[] bytes);
+        void handleReceive(ByteBuf buf);
     }
 }
@@ -0,0 +1,87 @@
+package emu.grasscutter.server.game;
+
+import io.netty.channel.DefaultEventLoop;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import it.unimi.dsi.fastutil.HashCommon;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A fixed set of single-threaded executors which game sessions are pinned to. Every task submitted
+ * for a session runs on the same executor, so packets of one player are still handled in order,
+ * while different players are spread across all available cores.
+ */
+public final class LogicExecutorGroup {
+    private final DefaultEventLoop[] executors;
+
+    /**
+     * @param threads The amount of executors to create. Values below 1 use one per CPU core.
+     */
+    public LogicExecutorGroup(int threads) {
+        if (threads < 1) threads = Runtime.getRuntime().availableProcessors();
+
+        var factory = new DefaultThreadFactory("logic");
+        this.executors = new DefaultEventLoop[threads];
+        for (var i = 0; i < threads; i++) {
+            this.executors[i] = new DefaultEventLoop(factory);
+        }
+    }
+
+    /**
+     * Picks the executor for the given key. The same key always maps to the same executor.
+     *
+     * @param key A stable identifier, such as the KCP conversation ID or a player's UID.
+     * @return The executor.
+     */
+    public DefaultEventLoop next(long key) {
+        return this.executors[Math.floorMod(HashCommon.mix(key), this.executors.length)];
+    }
+
+    /**
+     * @return The amount of executors in this group.
+     */
+    public int size() {
+        return this.executors.length;
+    }
+
+    /**
+     * @param shard The index of the executor.
+     * @return The amount of tasks waiting to be run on that executor.
+     */
+    public int getPendingTasks(int shard) {
+        return this.executors[shard].pendingTasks();
+    }
+
+    /**
+     * @return The amount of tasks waiting to be run on each executor.
+     */
+    public int[] getPendingTasks() {
+        var pending = new int[this.executors.length];
+        for (var i = 0; i < pending.length; i++) {
+            pending[i] = this.executors[i].pendingTasks();
+        }
+        return pending;
+    }
+
+    /** Gracefully shuts down all executors. */
+    public void shutdownGracefully() {
+        for (var executor : this.executors) {
+            executor.shutdownGracefully();
+        }
+    }
+
+    /**
+     * Waits for all executors to terminate.
+     *
+     * @return True if every executor terminated before the timeout elapsed.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (var executor : this.executors) {
+            var remaining = deadline - System.nanoTime();
+            if (!executor.awaitTermination(Math.max(remaining, 0), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,142 @@
+package emu.grasscutter.server.game;
+
+import emu.grasscutter.game.Account;
+import emu.grasscutter.game.player.Player;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import javax.annotation.Nullable;
+
+/**
+ * The players connected to a game server, indexed by UID, account ID, username and IP address.
+ * Lookups never lock or iterate; registering and removing a player updates every index together.
+ *
+ * <p>Plugins should use these lookups instead of iterating over {@link GameServer#getPlayers()}.
+ */
+public final class OnlinePlayers implements Iterable<Player> {
+    private final Map<Integer, Player> byUid = new ConcurrentHashMap<>();
+    private final Map<Integer, Player> view = Collections.unmodifiableMap(this.byUid);
+    private final Map<String, Player> byAccountId = new ConcurrentHashMap<>();
+    private final Map<String, Player> byUsername = new ConcurrentHashMap<>();
+    private final Map<String, Set<Player>> byAddress = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a player to every index. Replaces a player with the same UID or account.
+     *
+     * @param player The player.
+     */
+    public synchronized void register(Player player) {
+        var replaced = this.byUid.get(player.getUid());
+        if (replaced != null && replaced != player) this.remove(replaced);
+
+        this.byUid.put(player.getUid(), player);
+
+        var account = player.getAccount();
+        if (account != null) {
+            this.byAccountId.put(account.getId(), player);
+            this.byUsername.put(account.getUsername(), player);
+        }
+
+        var address = addressOf(player);
+        if (address != null) {
+            this.byAddress.computeIfAbsent(address, key -> ConcurrentHashMap.newKeySet()).add(player);
+        }
+    }
+
+    /**
+     * Removes a player from every index. Does nothing if another player with the same UID has
+     * replaced it.
+     *
+     * @param player The player.
+     */
+    public synchronized void remove(Player player) {
+        if (!this.byUid.remove(player.getUid(), player)) return;
+
+        var account = player.getAccount();
+        if (account != null) {
+            this.byAccountId.remove(account.getId(), player);
+            this.byUsername.remove(account.getUsername(), player);
+        }
+
+        var address = addressOf(player);
+        if (address != null) {
+            var players = this.byAddress.get(address);
+            if (players != null) {
+                players.remove(player);
+                if (players.isEmpty()) this.byAddress.remove(address);
+            }
+        }
+    }
+
+    /**
+     * @return The player with the given UID, or null if they are offline.
+     */
+    @Nullable public Player getByUid(int uid) {
+        return this.byUid.get(uid);
+    }
+
+    /**
+     * @return The player logged into the given account, or null if there is none.
+     */
+    @Nullable public Player getByAccountId(String accountId) {
+        return this.byAccountId.get(accountId);
+    }
+
+    /**
+     * @return The player logged into the account with the given username, or null if there is none.
+     */
+    @Nullable public Player getByUsername(String username) {
+        return this.byUsername.get(username);
+    }
+
+    /**
+     * @return The account with the given username, if a player is logged into it.
+     */
+    @Nullable public Account getAccountByUsername(String username) {
+        var player = this.byUsername.get(username);
+        return player == null ? null : player.getAccount();
+    }
+
+    /**
+     * @param address An IP address, without a port.
+     * @return Every player connected from the address.
+     */
+    public Set<Player> getByAddress(String address) {
+        var players = this.byAddress.get(address);
+        return players == null ? Set.of() : Collections.unmodifiableSet(players);
+    }
+
+    /**
+     * @return The amount of online players.
+     */
+    public int size() {
+        return this.byUid.size();
+    }
+
+    /**
+     * @return A read-only view of the online players by UID.
+     */
+    public Map<Integer, Player> asMap() {
+        return this.view;
+    }
+
+    /**
+     * @return A stream of the online players.
+     */
+    public Stream<Player> stream() {
+        return this.byUid.values().stream();
+    }
+
+    @Override
+    public Iterator<Player> iterator() {
+        return this.view.values().iterator();
+    }
+
+    @Nullable private static String addressOf(Player player) {
+        var session = player.getSession();
+        if (session == null) return null;
+
+        var address = session.getAddress();
+        return address == null ? null : address.getHostString();
+    }
+}
@@ -0,0 +1,119 @@
+package emu.grasscutter.server.game;
+
+import emu.grasscutter.Grasscutter;
+import emu.grasscutter.game.player.Player;
+import emu.grasscutter.game.world.World;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Ticks worlds and players on a pool of threads. Each world is ticked together with the players in
+ * it as one task, so everything belonging to a world still runs on a single thread per tick.
+ */
+public final class TickEngine {
+    private final ForkJoinPool pool;
+
+    /**
+     * @param threads The amount of threads to tick with. Values below 1 use one per CPU core.
+     */
+    public TickEngine(int threads) {
+        if (threads < 1) threads = Runtime.getRuntime().availableProcessors();
+
+        this.pool =
+                new ForkJoinPool(
+                        threads,
+                        pool -> {
+                            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                            thread.setName("tick-" + thread.getPoolIndex());
+                            return thread;
+                        },
+                        null,
+                        false);
+    }
+
+    /**
+     * Ticks every world and every player. Returns once all of them have finished.
+     *
+     * @param worlds The worlds to tick. Worlds which request removal are removed.
+     * @param players The online players.
+     */
+    public void tick(Set<World> worlds, Collection<Player> players) {
+        List<World> worldList;
+        synchronized (worlds) {
+            worldList = new ArrayList<>(worlds);
+        }
+
+        // Group players with the world they are in.
+        var worldPlayers = new IdentityHashMap<World, List<Player>>(worldList.size());
+        worldList.forEach(world -> worldPlayers.put(world, new ArrayList<>(4)));
+        var loosePlayers = new ArrayList<Player>();
+        for (var player : players) {
+            var group = worldPlayers.get(player.getWorld());
+            if (group != null) group.add(player);
+            else loosePlayers.add(player);
+        }
+
+        var removed = ConcurrentHashMap.<World>newKeySet();
+        var tasks = new ArrayList<ForkJoinTask<?>>(worldList.size() + loosePlayers.size());
+        for (var world : worldList) {
+            tasks.add(
+                    this.pool.submit(
+                            () -> {
+                                try {
+                                    if (world.onTick()) removed.add(world);
+                                } catch (Exception exception) {
+                                    Grasscutter.getLogger().error("Unable to tick a world.", exception);
+                                }
+                                worldPlayers.get(world).forEach(TickEngine::tickPlayer);
+                            }));
+        }
+        for (var player : loosePlayers) {
+            tasks.add(this.pool.submit(() -> TickEngine.tickPlayer(player)));
+        }
+
+        // Wait for every task before continuing.
+        tasks.forEach(ForkJoinTask::join);
+        if (!removed.isEmpty()) worlds.removeAll(removed);
+    }
+
+    /**
+     * Runs an action for every world, one task per world. Returns once all of them have finished.
+     *
+     * @param worlds The worlds.
+     * @param action The action to run.
+     */
+    public void forEachWorld(Set<World> worlds, Consumer<World> action) {
+        List<World> worldList;
+        synchronized (worlds) {
+            worldList = new ArrayList<>(worlds);
+        }
+
+        var tasks = new ArrayList<ForkJoinTask<?>>(worldList.size());
+        for (var world : worldList) {
+            tasks.add(
+                    this.pool.submit(
+                            () -> {
+                                try {
+                                    action.accept(world);
+                                } catch (Exception exception) {
+                                    Grasscutter.getLogger().error("Unable to tick a world.", exception);
+                                }
+                            }));
+        }
+        tasks.forEach(ForkJoinTask::join);
+    }
+
+    private static void tickPlayer(Player player) {
+        try {
+            player.onTick();
+        } catch (Exception exception) {
+            Grasscutter.getLogger().error("Unable to tick player {}.", player.getUid(), exception);
+        }
+    }
+
+    /** Stops the tick threads. */
+    public void shutdown() {
+        this.pool.shutdown();
+    }
+}
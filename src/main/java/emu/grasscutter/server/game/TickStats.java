@@ -0,0 +1,144 @@
+package emu.grasscutter.server.game;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing information about server ticks. Written by the game loop, safe to read from anywhere.
+ *
+ * <p>A (slow) tick runs once per second and handles most game logic. Fast ticks run {@link
+ * #getTickRate()} times per second for checks which need lower latency, such as region triggers.
+ */
+public final class TickStats {
+    private volatile int tickRate = 1;
+    private volatile long fastTickCount;
+    private volatile long skippedTicks;
+    private volatile long lastFastTickNanos;
+    private volatile long latenessNanos;
+
+    private volatile long tickCount;
+    private volatile long overrunCount;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+    private volatile double averageTickNanos;
+
+    /**
+     * Records a finished tick.
+     *
+     * @param durationNanos How long the tick took.
+     * @param periodNanos How long the tick was allowed to take.
+     */
+    void record(long durationNanos, long periodNanos) {
+        this.tickCount++;
+        if (durationNanos > periodNanos) this.overrunCount++;
+
+        this.lastTickNanos = durationNanos;
+        if (durationNanos > this.maxTickNanos) this.maxTickNanos = durationNanos;
+
+        // Exponential moving average over roughly the last 20 ticks.
+        var average = this.averageTickNanos;
+        this.averageTickNanos = average == 0 ? durationNanos : average + (durationNanos - average) / 20;
+    }
+
+    void setTickRate(int tickRate) {
+        this.tickRate = tickRate;
+    }
+
+    void recordFastTick(long durationNanos) {
+        this.fastTickCount++;
+        this.lastFastTickNanos = durationNanos;
+    }
+
+    void recordSkipped(long ticks) {
+        this.skippedTicks += ticks;
+    }
+
+    void recordLateness(long latenessNanos) {
+        this.latenessNanos = latenessNanos;
+    }
+
+    /**
+     * @return The amount of fast ticks per second.
+     */
+    public int getTickRate() {
+        return this.tickRate;
+    }
+
+    /**
+     * @return The amount of fast ticks run since the server started.
+     */
+    public long getFastTickCount() {
+        return this.fastTickCount;
+    }
+
+    /**
+     * @return The amount of fast ticks skipped because the loop fell too far behind.
+     */
+    public long getSkippedTicks() {
+        return this.skippedTicks;
+    }
+
+    /**
+     * @return How long the last fast tick took, in milliseconds.
+     */
+    public double getLastFastTickMillis() {
+        return this.lastFastTickNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return How late the last fast tick started compared to its schedule, in milliseconds.
+     */
+    public double getLatenessMillis() {
+        return this.latenessNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return The amount of ticks run since the server started.
+     */
+    public long getTickCount() {
+        return this.tickCount;
+    }
+
+    /**
+     * @return The amount of ticks which took longer than the tick period.
+     */
+    public long getOverrunCount() {
+        return this.overrunCount;
+    }
+
+    /**
+     * @return How long the last tick took, in milliseconds.
+     */
+    public double getLastTickMillis() {
+        return this.lastTickNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return How long the slowest tick took, in milliseconds.
+     */
+    public double getMaxTickMillis() {
+        return this.maxTickNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * @return The recent average tick duration, in milliseconds.
+     */
+    public double getAverageTickMillis() {
+        return this.averageTickNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return ("ticks=%d, overruns=%d, last=%.1fms, avg=%.1fms, max=%.1fms,"
+                        + " fast=%dHz, fastLast=%.1fms, skipped=%d, late=%.1fms")
+                .formatted(
+                        this.getTickCount(),
+                        this.getOverrunCount(),
+                        this.getLastTickMillis(),
+                        this.getAverageTickMillis(),
+                        this.getMaxTickMillis(),
+                        this.getTickRate(),
+                        this.getLastFastTickMillis(),
+                        this.getSkippedTicks(),
+                        this.getLatenessMillis());
+    }
+}
@@ -5,13 +5,14 @@ import emu.grasscutter.net.packet.*;
 import emu.grasscutter.net.proto.AbilityInvocationsNotifyOuterClass.AbilityInvocationsNotify;
 import emu.grasscutter.net.proto.AbilityInvokeEntryOuterClass.AbilityInvokeEntry;
 import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.ByteBuf;
 
 @Opcodes(PacketOpcodes.AbilityInvocationsNotify)
-public class HandlerAbilityInvocationsNotify extends PacketHandler {
+public class HandlerAbilityInvocationsNotify extends BufferPacketHandler {
 
     @Override
-    public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
-        AbilityInvocationsNotify notif = AbilityInvocationsNotify.parseFrom(payload);
+    public void handle(GameSession session, ByteBuf header, ByteBuf payload) throws Exception {
+        AbilityInvocationsNotify notif = AbilityInvocationsNotify.parseFrom(stream(payload));
 
         Player player = session.getPlayer();
         for (AbilityInvokeEntry entry : notif.getInvokesList()) {
@@ -17,18 +17,19 @@ import emu.grasscutter.net.proto.MotionStateOuterClass.MotionState;
 import emu.grasscutter.net.proto.PlayerDieTypeOuterClass;
 import emu.grasscutter.server.event.entity.EntityMoveEvent;
 import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.ByteBuf;
 import emu.grasscutter.server.packet.send.PacketEntityFightPropUpdateNotify;
 
 @Opcodes(PacketOpcodes.CombatInvocationsNotify)
-public class HandlerCombatInvocationsNotify extends PacketHandler {
+public class HandlerCombatInvocationsNotify extends BufferPacketHandler {
 
     private float cachedLandingSpeed = 0;
     private long cachedLandingTimeMillisecond = 0;
     private boolean monitorLandingEvent = false;
 
     @Override
-    public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
-        CombatInvocationsNotify notif = CombatInvocationsNotify.parseFrom(payload);
+    public void handle(GameSession session, ByteBuf header, ByteBuf payload) throws Exception {
+        CombatInvocationsNotify notif = CombatInvocationsNotify.parseFrom(stream(payload));
         Player player = session.getPlayer();
         for (CombatInvokeEntry entry : notif.getInvokeListList()) {
             // Handle combat invoke
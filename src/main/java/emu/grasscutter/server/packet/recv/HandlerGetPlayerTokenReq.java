@@ -4,6 +4,7 @@ import static emu.grasscutter.config.Configuration.ACCOUNT;
 
 import emu.grasscutter.*;
 import emu.grasscutter.database.DatabaseHelper;
+import emu.grasscutter.game.Account;
 import emu.grasscutter.game.player.Player;
 import emu.grasscutter.net.packet.*;
 import emu.grasscutter.net.proto.GetPlayerTokenReqOuterClass.GetPlayerTokenReq;
@@ -15,6 +16,7 @@ import emu.grasscutter.utils.*;
 import emu.grasscutter.utils.helpers.ByteHelper;
 import java.nio.ByteBuffer;
 import java.security.Signature;
+import java.util.concurrent.CompletableFuture;
 import javax.crypto.Cipher;
 
 @Opcodes(PacketOpcodes.GetPlayerTokenReq)
@@ -22,21 +24,41 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
     @Override
     public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
         var req = GetPlayerTokenReq.parseFrom(payload);
+        var executor = session.getLogicExecutor();
 
         // Fetch the account from the ID and token.
+        // Everything which queries the database runs on the database executor, and the logic
+        // thread only picks up the results.
+        DatabaseHelper.fetchAsync(() -> authenticate(req))
+            .thenComposeAsync(account -> this.login(session, req, account), executor)
+            .exceptionally(throwable -> {
+                Grasscutter.getLogger().warn("Unable to log in {}.", session.getAddress(), throwable);
+                session.close();
+                return null;
+            });
+    }
+
+    /**
+     * Fetches the account of a token request.
+     *
+     * @return The account, or null if the token is invalid.
+     */
+    private static Account authenticate(GetPlayerTokenReq req) {
         var accountId = req.getAccountUid();
         var account = DispatchUtils.authenticate(accountId, req.getAccountToken());
+        if (account == null && DebugConstants.ACCEPT_CLIENT_TOKEN) {
+            account = DispatchUtils.getAccountById(accountId);
+        }
 
+        return account;
+    }
+
+    /** Continues the login on the logic thread once the account is known. */
+    private CompletableFuture<Void> login(GameSession session, GetPlayerTokenReq req, Account account) {
         // Check the account.
-        if (account == null && !DebugConstants.ACCEPT_CLIENT_TOKEN) {
+        if (account == null) {
             session.close();
-            return;
-        } else if (account == null && DebugConstants.ACCEPT_CLIENT_TOKEN) {
-            account = DispatchUtils.getAccountById(accountId);
-            if (account == null) {
-                session.close();
-                return;
-            }
+            return CompletableFuture.completedFuture(null);
         }
 
         // Set account
@@ -47,7 +69,7 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
         // secondly !!!
         // TODO - optimize
         boolean kicked = false;
-        var exists = Grasscutter.getGameServer().getPlayerByAccountId(accountId);
+        var exists = Grasscutter.getGameServer().getPlayerByAccountId(account.getId());
         if (exists != null) {
             var existsSession = exists.getSession();
             if (existsSession != session) { // No self-kicking
@@ -67,7 +89,7 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
             if (ACCOUNT.maxPlayer > -1
                 && Grasscutter.getGameServer().getPlayers().size() >= ACCOUNT.maxPlayer) {
                 session.close();
-                return;
+                return CompletableFuture.completedFuture(null);
             }
         }
 
@@ -76,35 +98,50 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
         event.call();
 
         // Get player.
-        var player = DatabaseHelper.getPlayerByAccount(account, event.getPlayerClass());
+        return DatabaseHelper.fetchAsync(() -> getOrCreatePlayer(session, event.getPlayerClass()))
+            .thenComposeAsync(player -> {
+                // Set player object for session
+                session.setPlayer(player);
+
+                // Checks if the player is banned
+                if (session.getAccount().isBanned()) {
+                    session.setState(SessionState.ACCOUNT_BANNED);
+                    session.send(
+                        new PacketGetPlayerTokenRsp(
+                            session, 21, "FORBID_CHEATING_PLUGINS", session.getAccount().getBanEndTime()));
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                // Load player from database
+                return player.loadFromDatabase()
+                    .thenRun(() -> this.sendToken(session, req));
+            }, session.getLogicExecutor());
+    }
+
+    /** Fetches the session's player, or creates one if the account has none. */
+    private static Player getOrCreatePlayer(GameSession session, Class<? extends Player> playerClass) {
+        var player = DatabaseHelper.getPlayerByAccount(session.getAccount(), playerClass);
 
         if (player == null) {
             var nextPlayerUid =
                 DatabaseHelper.getNextPlayerId(session.getAccount().getReservedPlayerUid());
 
             // Create player instance from event.
-            player =
-                event.getPlayerClass().getDeclaredConstructor(GameSession.class).newInstance(session);
+            try {
+                player = playerClass.getDeclaredConstructor(GameSession.class).newInstance(session);
+            } catch (ReflectiveOperationException exception) {
+                throw new IllegalStateException("Unable to create " + playerClass.getName(), exception);
+            }
 
             // Save to db
             DatabaseHelper.generatePlayerUid(player, nextPlayerUid);
         }
 
-        // Set player object for session
-        session.setPlayer(player);
-
-        // Checks if the player is banned
-        if (session.getAccount().isBanned()) {
-            session.setState(SessionState.ACCOUNT_BANNED);
-            session.send(
-                new PacketGetPlayerTokenRsp(
-                    session, 21, "FORBID_CHEATING_PLUGINS", session.getAccount().getBanEndTime()));
-            return;
-        }
-
-        // Load player from database
-        player.loadFromDatabase();
+        return player;
+    }
 
+    /** Sends the token response once the player is loaded. */
+    private void sendToken(GameSession session, GetPlayerTokenReq req) {
         if (Grasscutter.getConfig().server.game.useXorEncryption) {
             // Set session state
             session.setUseSecretKey(true);
@@ -156,4 +193,4 @@ public class HandlerGetPlayerTokenReq extends PacketHandler {
             session.send(new PacketGetPlayerTokenRsp(session, req.getKeyId()));
         }
     }
-}
\ No newline at end of file
+}
@@ -1,33 +1,30 @@
 package emu.grasscutter.server.packet.recv;
 
-import static emu.grasscutter.config.Configuration.*;
+import static emu.grasscutter.config.Configuration.GAME_INFO;
 
 import emu.grasscutter.Grasscutter.ServerDebugMode;
 import emu.grasscutter.net.packet.*;
 import emu.grasscutter.net.proto.UnionCmdNotifyOuterClass.UnionCmdNotify;
 import emu.grasscutter.net.proto.UnionCmdOuterClass.UnionCmd;
 import emu.grasscutter.server.game.GameSession;
+import io.netty.buffer.*;
 
 @Opcodes(PacketOpcodes.UnionCmdNotify)
-public class HandlerUnionCmdNotify extends PacketHandler {
+public class HandlerUnionCmdNotify extends BufferPacketHandler {
     @Override
-    public void handle(GameSession session, byte[] header, byte[] payload) throws Exception {
-        UnionCmdNotify req = UnionCmdNotify.parseFrom(payload);
+    public void handle(GameSession session, ByteBuf header, ByteBuf payload) throws Exception {
+        UnionCmdNotify req = UnionCmdNotify.parseFrom(stream(payload));
         for (UnionCmd cmd : req.getCmdListList()) {
             int cmdOpcode = cmd.getMessageId();
-            byte[] cmdPayload = cmd.getBody().toByteArray();
-            if (GAME_INFO.logPackets == ServerDebugMode.WHITELIST
-                    && SERVER.debugWhitelist.contains(cmd.getMessageId())) {
-                session.logPacket("RECV in Union", cmdOpcode, cmdPayload);
-            } else if (GAME_INFO.logPackets == ServerDebugMode.BLACKLIST
-                    && !SERVER.debugBlacklist.contains(cmd.getMessageId())) {
-                session.logPacket("RECV in Union", cmdOpcode, cmdPayload);
-            }
+            ByteBuf cmdPayload = Unpooled.wrappedBuffer(cmd.getBody().asReadOnlyByteBuffer());
             // debugLevel ALL ignores UnionCmdNotify, so we will also ignore the contained opcodes
+            if (GAME_INFO.logPackets != ServerDebugMode.ALL && PacketTracer.accept(cmdOpcode)) {
+                PacketTracer.record("RECV in Union", cmdOpcode, cmdPayload);
+            }
             session
                     .getServer()
                     .getPacketHandler()
-                    .handle(session, cmd.getMessageId(), EMPTY_BYTE_ARRAY, cmd.getBody().toByteArray());
+                    .handle(session, cmdOpcode, Unpooled.EMPTY_BUFFER, cmdPayload);
         }
 
         // Update
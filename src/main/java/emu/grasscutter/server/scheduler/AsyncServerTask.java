@@ -1,5 +1,6 @@
 package emu.grasscutter.server.scheduler;
 
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 import lombok.Getter;
 
@@ -13,9 +14,9 @@ public final class AsyncServerTask implements Runnable {
     @Nullable private final Runnable callback;
 
     /* Has the task already been started? */
-    private boolean started = false;
+    private volatile boolean started = false;
     /* Has the task finished execution? */
-    private boolean finished = false;
+    private volatile boolean finished = false;
     /* The result produced in the async task. */
     @Nullable private Object result = null;
 
@@ -58,6 +59,16 @@ public final class AsyncServerTask implements Runnable {
         return this.finished;
     }
 
+    /**
+     * Marks the task as started and submits it.
+     *
+     * @param executor The executor to run the task on.
+     */
+    void start(Executor executor) {
+        this.started = true;
+        executor.execute(this);
+    }
+
     /** Runs the task. */
     @Override
     public void run() {
@@ -1,12 +1,14 @@
 package emu.grasscutter.server.scheduler;
 
+import emu.grasscutter.Grasscutter;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A class to manage all time-based tasks scheduled on the server. This handles both synchronous and
  * asynchronous tasks.
  *
- * <p>Developers note: A server tick is ONE REAL-TIME SECOND.
+ * <p>Developers note: A server tick is ONE REAL-TIME SECOND. Checks which need to run more often
+ * belong in the fast ticks of {@link emu.grasscutter.server.game.GameLoop}.
  */
 public final class ServerTaskScheduler {
     /* A map to contain all running tasks. */
@@ -43,10 +45,8 @@ public final class ServerTaskScheduler {
         // Run all async tasks.
         for (AsyncServerTask task : this.asyncTasks.values()) {
             if (!task.hasStarted()) {
-                // Create a thread for the task.
-                Thread thread = new Thread(task);
-                // Start the thread.
-                thread.start();
+                // Run the task on the shared thread pool.
+                task.start(Grasscutter.getThreadPool());
             } else if (task.isFinished()) {
                 // Cancel the task.
                 this.asyncTasks.remove(task.getTaskId());
@@ -0,0 +1,113 @@
+package emu.grasscutter.server.scheduler;
+
+import emu.grasscutter.Grasscutter;
+import io.netty.util.*;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.concurrent.*;
+
+/**
+ * A shared timer for short delays and periodic tasks, such as stamina updates or script time axes.
+ * Deadlines are tracked by a single {@link HashedWheelTimer} thread; tasks themselves run on the
+ * executor they were scheduled with (usually the owning player's logic executor). The amount of
+ * threads therefore stays the same no matter how many timers are active.
+ */
+public final class TimerService {
+    private static final HashedWheelTimer timer =
+            new HashedWheelTimer(new DefaultThreadFactory("timer", true), 10, TimeUnit.MILLISECONDS, 512);
+
+    /**
+     * Runs a task once after a delay.
+     *
+     * @param executor The executor to run the task on.
+     * @param task The task.
+     * @param delay The delay.
+     * @param unit The unit of the delay.
+     * @return A handle which can cancel the task.
+     */
+    public static Handle schedule(Executor executor, Runnable task, long delay, TimeUnit unit) {
+        var handle = new Handle(executor, task, 0);
+        handle.scheduleAt(System.nanoTime() + unit.toNanos(delay));
+        return handle;
+    }
+
+    /**
+     * Runs a task repeatedly at a fixed rate. Missed runs are not made up for.
+     *
+     * @param executor The executor to run the task on.
+     * @param task The task.
+     * @param initialDelay The delay before the first run.
+     * @param period The time between the start of each run.
+     * @param unit The unit of the delay and period.
+     * @return A handle which can cancel the task.
+     */
+    public static Handle scheduleAtFixedRate(
+            Executor executor, Runnable task, long initialDelay, long period, TimeUnit unit) {
+        if (period <= 0) throw new IllegalArgumentException("period must be positive");
+
+        var handle = new Handle(executor, task, unit.toNanos(period));
+        handle.scheduleAt(System.nanoTime() + unit.toNanos(initialDelay));
+        return handle;
+    }
+
+    /** A scheduled task. */
+    public static final class Handle implements TimerTask {
+        private final Executor executor;
+        private final Runnable task;
+        private final long periodNanos;
+
+        private volatile boolean cancelled = false;
+        private volatile Timeout timeout;
+        private long deadline;
+
+        private Handle(Executor executor, Runnable task, long periodNanos) {
+            this.executor = executor;
+            this.task = task;
+            this.periodNanos = periodNanos;
+        }
+
+        private void scheduleAt(long deadline) {
+            this.deadline = deadline;
+            this.timeout = timer.newTimeout(this, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (this.cancelled) this.timeout.cancel();
+        }
+
+        @Override
+        public void run(Timeout timeout) {
+            if (this.cancelled) return;
+
+            // Schedule the next run first, so a slow task does not delay it.
+            if (this.periodNanos > 0) {
+                var next = this.deadline + this.periodNanos;
+                var now = System.nanoTime();
+                if (next < now) next += ((now - next) / this.periodNanos + 1) * this.periodNanos;
+                this.scheduleAt(next);
+            }
+
+            try {
+                this.executor.execute(
+                        () -> {
+                            if (!this.cancelled) this.task.run();
+                        });
+            } catch (RejectedExecutionException ignored) {
+                this.cancel(); // The owner is shutting down.
+            } catch (Exception exception) {
+                Grasscutter.getLogger().warn("Unable to run a timer task.", exception);
+            }
+        }
+
+        /** Stops the task. A run which has already started will finish. */
+        public void cancel() {
+            this.cancelled = true;
+
+            var timeout = this.timeout;
+            if (timeout != null) timeout.cancel();
+        }
+
+        /**
+         * @return True if the task was cancelled.
+         */
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package emu.grasscutter.utils;
 import emu.grasscutter.Grasscutter;
 import emu.grasscutter.server.http.objects.QueryCurRegionRspJson;
 import emu.grasscutter.utils.algorithms.MersenneTwister64;
+import io.netty.buffer.ByteBuf;
 import java.io.ByteArrayOutputStream;
+import java.lang.invoke.*;
+import java.nio.ByteOrder;
 import java.nio.file.Path;
 import java.security.*;
 import java.security.spec.*;
@@ -59,10 +62,68 @@ public final class Crypto {
         }
     }
 
+    // Views used to XOR eight bytes at a time. Byte order does not matter for XOR, as long as the
+    // packet and the key are read the same way.
+    private static final VarHandle LONG_VIEW =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG_VIEW_BE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
     public static void xor(byte[] packet, byte[] key) {
+        xor(packet, 0, packet.length, key);
+    }
+
+    /**
+     * XORs a range of an array in place. The key is aligned to the start of the range.
+     *
+     * @param packet The array to transform.
+     * @param offset The index of the first byte to transform.
+     * @param length The amount of bytes to transform.
+     * @param key The key to apply.
+     */
+    public static void xor(byte[] packet, int offset, int length, byte[] key) {
+        try {
+            int i = 0;
+            if ((key.length & 7) == 0) {
+                for (int k = 0, limit = length & ~7; i < limit; i += 8) {
+                    var index = offset + i;
+                    LONG_VIEW.set(
+                            packet, index, (long) LONG_VIEW.get(packet, index) ^ (long) LONG_VIEW.get(key, k));
+                    if ((k += 8) == key.length) k = 0;
+                }
+            }
+            for (; i < length; i++) {
+                packet[offset + i] ^= key[i % key.length];
+            }
+        } catch (Exception e) {
+            Grasscutter.getLogger().error("Crypto error.", e);
+        }
+    }
+
+    /**
+     * XORs the readable bytes of a buffer in place. The key is aligned to the buffer's reader index.
+     *
+     * @param packet The buffer to transform.
+     * @param key The key to apply.
+     */
+    public static void xor(ByteBuf packet, byte[] key) {
+        int start = packet.readerIndex(), length = packet.readableBytes();
+        if (packet.hasArray()) {
+            xor(packet.array(), packet.arrayOffset() + start, length, key);
+            return;
+        }
+
         try {
-            for (int i = 0; i < packet.length; i++) {
-                packet[i] ^= key[i % key.length];
+            int i = 0;
+            if ((key.length & 7) == 0) {
+                for (int k = 0, limit = length & ~7; i < limit; i += 8) {
+                    var index = start + i;
+                    packet.setLong(index, packet.getLong(index) ^ (long) LONG_VIEW_BE.get(key, k));
+                    if ((k += 8) == key.length) k = 0;
+                }
+            }
+            for (; i < length; i++) {
+                packet.setByte(start + i, packet.getByte(start + i) ^ key[i % key.length]);
             }
         } catch (Exception e) {
             Grasscutter.getLogger().error("Crypto error.", e);
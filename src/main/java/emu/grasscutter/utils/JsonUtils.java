@@ -2,6 +2,7 @@ package emu.grasscutter.utils;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import emu.grasscutter.data.ResourceSnapshot;
 import emu.grasscutter.data.common.DynamicFloat;
 import emu.grasscutter.game.world.*;
 import emu.grasscutter.utils.JsonAdapters.*;
@@ -63,6 +64,9 @@ public final class JsonUtils {
     }
 
     public static <T> T loadToClass(Path filename, Class<T> classType) throws IOException {
+        var snapshot = ResourceSnapshot.read(filename);
+        if (snapshot != null) return gson.fromJson(snapshot, classType);
+
         try (var fileReader = Files.newBufferedReader(filename, StandardCharsets.UTF_8)) {
             return loadToClass(fileReader, classType);
         }
@@ -82,6 +86,11 @@ public final class JsonUtils {
     }
 
     public static <T> List<T> loadToList(Path filename, Class<T> classType) throws IOException {
+        var snapshot = ResourceSnapshot.read(filename);
+        if (snapshot != null) {
+            return gson.fromJson(snapshot, TypeToken.getParameterized(List.class, classType).getType());
+        }
+
         try (var fileReader = Files.newBufferedReader(filename, StandardCharsets.UTF_8)) {
             return loadToList(fileReader, classType);
         }
@@ -105,16 +114,17 @@ public final class JsonUtils {
 
     public static <T1, T2> Map<T1, T2> loadToMap(
             Path filename, Class<T1> keyType, Class<T2> valueType) throws IOException {
-        try (var fileReader = Files.newBufferedReader(filename, StandardCharsets.UTF_8)) {
-            return loadToMap(fileReader, keyType, valueType);
-        }
+        return loadToMap(filename, keyType, (Type) valueType);
     }
 
     public static <T1, T2> Map<T1, T2> loadToMap(Path filename, Class<T1> keyType, Type valueType)
             throws IOException {
+        var type = TypeToken.getParameterized(Map.class, keyType, valueType).getType();
+        var snapshot = ResourceSnapshot.read(filename);
+        if (snapshot != null) return gson.fromJson(snapshot, type);
+
         try (var fileReader = Files.newBufferedReader(filename, StandardCharsets.UTF_8)) {
-            return gson.fromJson(
-                    fileReader, TypeToken.getParameterized(Map.class, keyType, valueType).getType());
+            return gson.fromJson(fileReader, type);
         }
     }
 
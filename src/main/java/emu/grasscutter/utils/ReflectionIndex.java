@@ -0,0 +1,53 @@
+package emu.grasscutter.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.reflections.Reflections;
+import org.reflections.serializers.JsonSerializer;
+import org.reflections.util.*;
+
+/**
+ * The server's class index: subtypes and annotated types of {@code emu.grasscutter}, used to find
+ * packet handlers, commands, resources, ability handlers, database entities and tasks.
+ *
+ * <p>The Gradle {@code reflectionsIndex} task scans the compiled classes once and bundles the
+ * result into the jar. At startup the bundled index is read instead of scanning every class in the
+ * jar. When it is missing, for example when running from an IDE, the classpath is scanned.
+ */
+public final class ReflectionIndex {
+    private static final String PACKAGE = "emu.grasscutter";
+    private static final String PROTO_PACKAGE = "emu.grasscutter.net.proto";
+    private static final String FOLDER = "META-INF/reflections/";
+    private static final String FILE = "grasscutter-reflections.json";
+
+    /**
+     * @return The bundled index, or a fresh scan if there is none.
+     */
+    public static Reflections load() {
+        try (var stream = ReflectionIndex.class.getClassLoader().getResourceAsStream(FOLDER + FILE)) {
+            if (stream != null) return new JsonSerializer().read(stream);
+        } catch (IOException | RuntimeException ignored) {
+            // Fall back to scanning.
+        }
+
+        return ReflectionIndex.scan();
+    }
+
+    /** Scans the server's classes. Generated protocol classes are skipped, nothing looks them up. */
+    private static Reflections scan() {
+        return new Reflections(
+                new ConfigurationBuilder()
+                        .forPackage(PACKAGE)
+                        .filterInputsBy(new FilterBuilder().includePackage(PACKAGE).excludePackage(PROTO_PACKAGE)));
+    }
+
+    /**
+     * Writes the index. Run by the build.
+     *
+     * @param args The output folder.
+     */
+    public static void main(String[] args) {
+        var output = Path.of(args[0], FOLDER, FILE);
+        ReflectionIndex.scan().save(output.toString(), new JsonSerializer());
+    }
+}
@@ -0,0 +1,11 @@
+package emu.grasscutter.utils.objects;
+
+import emu.grasscutter.database.ChangeTracker;
+
+/** An entity which is saved with partial updates. See {@link ChangeTracker}. */
+public interface ChangeTracked {
+    /**
+     * @return The tracker holding this entity's last written state.
+     */
+    ChangeTracker getChangeTracker();
+}
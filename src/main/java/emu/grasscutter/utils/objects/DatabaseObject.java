@@ -32,7 +32,7 @@ public interface DatabaseObject<T> {
      */
     default void save() {
         if (this.isGameObject()) {
-            DatabaseManager.getGameDatastore().save(this);
+            DatabaseHelper.saveGame(this);
         } else if (Grasscutter.getRunMode() != ServerRunMode.GAME_ONLY) {
             DatabaseManager.getAccountDatastore().save(this);
         } else {
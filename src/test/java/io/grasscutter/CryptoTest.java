@@ -0,0 +1,52 @@
+package io.grasscutter;
+
+import emu.grasscutter.utils.Crypto;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/** Checks {@link Crypto#xor} against the plain byte-by-byte implementation. */
+public final class CryptoTest {
+    private static void referenceXor(byte[] packet, int offset, int length, byte[] key) {
+        for (int i = 0; i < length; i++) {
+            packet[offset + i] ^= key[i % key.length];
+        }
+    }
+
+    @Test
+    @DisplayName("XOR matches the byte-by-byte implementation")
+    public void xorMatchesReference() {
+        var random = new Random(0x4567);
+        for (var keyLength : new int[] {4096, 32, 7, 1}) {
+            var key = new byte[keyLength];
+            random.nextBytes(key);
+
+            for (var round = 0; round < 200; round++) {
+                var packet = new byte[random.nextInt(10000)];
+                random.nextBytes(packet);
+                var offset = packet.length == 0 ? 0 : random.nextInt(packet.length);
+                var length = packet.length - offset;
+
+                var expected = packet.clone();
+                referenceXor(expected, offset, length, key);
+
+                var array = packet.clone();
+                Crypto.xor(array, offset, length, key);
+                Assertions.assertArrayEquals(expected, array);
+
+                var heap = Unpooled.wrappedBuffer(packet.clone()).readerIndex(offset);
+                Crypto.xor(heap, key);
+                Assertions.assertArrayEquals(expected, heap.array());
+
+                var direct = Unpooled.directBuffer(packet.length).writeBytes(packet).readerIndex(offset);
+                Crypto.xor(direct, key);
+                var result = new byte[packet.length];
+                direct.getBytes(0, result);
+                direct.release();
+                Assertions.assertArrayEquals(expected, result);
+            }
+        }
+    }
+}
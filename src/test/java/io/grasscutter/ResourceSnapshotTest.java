@@ -0,0 +1,88 @@
+package io.grasscutter;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import emu.grasscutter.data.ResourceSnapshot;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Checks that files read through a {@link ResourceSnapshot} have the same trees as parsing. */
+public final class ResourceSnapshotTest {
+    private static final String RESOURCE =
+            """
+            {
+              "nested": [[1, [2, []]], {"a": {"b": [{"c": null}]}}, {}],
+              "repeated": ["Icon", "Icon", {"Icon": "Icon"}, {"Icon": ["Type", "Type"]}],
+              "numbers": [0, -0, 1e3, 1.5, -2.25E-7, 10.0],
+              "longs": [9223372036854775807, -9223372036854775808],
+              "beyondLong": [9223372036854775808, -9223372036854775809, 123456789012345678901234567890],
+              "text": ["", "héllo", "旅行者", "🌸 emoji", "line\\nbreak"],
+              "flags": [true, false, null]
+            }""";
+
+    @TempDir Path folder;
+
+    @Test
+    @DisplayName("Resource snapshot decodes the same trees as parsing")
+    public void snapshotRoundTrip() throws IOException {
+        var file = this.folder.resolve("Resource.json");
+        Files.writeString(file, RESOURCE);
+        var expected = JsonParser.parseString(RESOURCE);
+
+        // The first read parses the file, and closing writes it to the image.
+        var image = this.folder.resolve("resources.bin");
+        this.assertSnapshotReads(image, file, expected);
+        Assertions.assertTrue(Files.exists(image));
+        Assertions.assertFalse(Files.exists(this.folder.resolve("resources.bin.spill")));
+
+        // Changing the file without changing its size or modification time keeps the stored tree,
+        // so this tree was decoded from the image.
+        var modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, RESOURCE.replace("héllo", "hallo!"));
+        Files.setLastModifiedTime(file, modified);
+        Assertions.assertEquals(Files.size(file), RESOURCE.getBytes(StandardCharsets.UTF_8).length);
+        this.assertSnapshotReads(image, file, expected);
+    }
+
+    @Test
+    @DisplayName("Resource snapshot parses files whose stored body is corrupt")
+    public void snapshotCorruptBody() throws IOException {
+        var file = this.folder.resolve("Resource.json");
+        Files.writeString(file, RESOURCE);
+        var expected = JsonParser.parseString(RESOURCE);
+
+        var image = this.folder.resolve("resources.bin");
+        this.assertSnapshotReads(image, file, expected);
+        var written = Files.readAllBytes(image);
+
+        // Replace the body's first tag. Headers are the magic, version and count, then the key's
+        // length, the key, the modification time, size and body length.
+        var key = file.toUri().toString().getBytes(StandardCharsets.UTF_8);
+        try (var channel = FileChannel.open(image, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), 12 + 4 + key.length + 20);
+        }
+        this.assertSnapshotReads(image, file, expected);
+
+        // The file was parsed again, and the image was rewritten as it was before the corruption.
+        Assertions.assertArrayEquals(written, Files.readAllBytes(image));
+    }
+
+    private void assertSnapshotReads(Path image, Path file, JsonElement expected) throws IOException {
+        ResourceSnapshot.open(image);
+        try {
+            var tree = ResourceSnapshot.read(file);
+            Assertions.assertEquals(expected, tree);
+            // Equal numbers may differ in text, like 0 and -0.
+            Assertions.assertEquals(expected.toString(), tree.toString());
+        } finally {
+            ResourceSnapshot.close();
+        }
+    }
+}